@@ -0,0 +1,71 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.QuerydslApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크마다 독립된 H2 메모리 DB로 애플리케이션 컨텍스트를 띄우고 데이터를 채운다.
+ * SQL 로그, p6spy, 결과 캐시는 측정을 왜곡하므로 기본으로 끈다.
+ */
+public final class BenchmarkApplication {
+
+    public static final int TEAM_COUNT = 10;
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--logging.level.org.hibernate.sql=warn",
+                "--logging.level.root=warn",
+                "--decorator.datasource.enabled=false",
+                "--querydsl.member.search-cache.enabled=false",
+                "--querydsl.member.count-cache.ttl=0s"
+        ));
+        // 같은 옵션이 두 번 오면 값이 "a,b"로 합쳐지므로 덮어쓰는 옵션은 기본값을 지운다
+        for (String override : overrides) {
+            String key = override.substring(0, override.indexOf('=') + 1);
+            args.removeIf(arg -> arg.startsWith(key));
+            args.add(override);
+        }
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * member_id가 1..members 로 연속되도록 JDBC 배치로 넣는다. 나이는 0~99, 팀은 id 순으로 돌아가며 배정한다.
+     */
+    public static void seed(ConfigurableApplicationContext context, int members) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> teams = new ArrayList<>();
+        for (long teamId = 1; teamId <= TEAM_COUNT; teamId++) {
+            teams.add(new Object[]{teamId, "team" + teamId});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teams);
+
+        int batchSize = 10_000;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= members; id++) {
+            batch.add(new Object[]{id, "member" + id, (int) (id % 100), id % TEAM_COUNT + 1});
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 16개 스레드가 동시에 findById를 호출할 때 건별 em.find(batch=false)와 배치 로더(batch=true) 비교.
+ */
+@State(Scope.Benchmark)
+@Threads(16)
+public class FindByIdBenchmark {
+
+    static final int MEMBERS = 100_000;
+
+    @Param({"false", "true"})
+    boolean batch;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--querydsl.member.batch-loader.enabled=" + batch);
+        BenchmarkApplication.seed(context, MEMBERS);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Member> findById() {
+        return memberJpaRepository.findById(ThreadLocalRandom.current().nextLong(1, MEMBERS + 1));
+    }
+}
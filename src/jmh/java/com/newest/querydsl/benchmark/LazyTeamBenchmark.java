@@ -0,0 +1,64 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.entity.Member;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * member 100명을 읽고 getTeam().getName()으로 lazy 로딩할 때, Team 2차 캐시 유무 비교.
+ * 캐시가 없으면 트랜잭션마다 팀 수(10)만큼 select가 나가고, 있으면 member 조회 1번으로 끝난다.
+ */
+@State(Scope.Benchmark)
+public class LazyTeamBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"false", "true"})
+    boolean cache;
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory queryFactory;
+    TransactionTemplate tx;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cache,
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=" + cache);
+        BenchmarkApplication.seed(context, members);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void lazyTeamAccess(Blackhole blackhole) {
+        tx.executeWithoutResult(status -> {
+            List<Member> page = queryFactory.selectFrom(member)
+                    .orderBy(member.id.asc())
+                    .limit(100)
+                    .fetch();
+            for (Member m : page) {
+                blackhole.consume(m.getTeam().getName());
+            }
+        });
+    }
+}
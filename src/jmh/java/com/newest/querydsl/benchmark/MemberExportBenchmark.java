@@ -0,0 +1,65 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.ExportJobDto;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.service.MemberExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 1,000,000명 전체를 gzip CSV로 내보내는 처리량(rows/sec). parallelism은 동시에 스캔하는 id 구간 수.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberExportBenchmark {
+
+    static final int MEMBERS = 1_000_000;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    ConfigurableApplicationContext context;
+    MemberExportService memberExportService;
+    Path directory;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("member-export-bench");
+        context = BenchmarkApplication.start(
+                "--querydsl.member.export.parallelism=" + parallelism,
+                "--querydsl.member.export.directory=" + directory);
+        BenchmarkApplication.seed(context, MEMBERS);
+        memberExportService = context.getBean(MemberExportService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public ExportJobDto export() throws InterruptedException {
+        String jobId = memberExportService.start(new MemberSearchCondition()).getJobId();
+        ExportJobDto status = memberExportService.status(jobId).orElseThrow();
+        while (status.getState() == ExportJobDto.State.RUNNING) {
+            Thread.sleep(5);
+            status = memberExportService.status(jobId).orElseThrow();
+        }
+        return status;
+    }
+}
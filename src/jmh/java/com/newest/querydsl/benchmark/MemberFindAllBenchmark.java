@@ -0,0 +1,45 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class MemberFindAllBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> findAll() {
+        return memberJpaRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Member> findAll_Querydsl() {
+        return memberJpaRepository.findAll_Querydsl();
+    }
+}
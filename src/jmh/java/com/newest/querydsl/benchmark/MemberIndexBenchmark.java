@@ -0,0 +1,84 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * 1M row에서 엔티티에 선언한 인덱스 유무에 따른 검색 latency.
+ * indexes=false는 스키마 생성 후 인덱스를 지워 이전 상태를 재현한다.
+ */
+@State(Scope.Benchmark)
+public class MemberIndexBenchmark {
+
+    static final List<String> INDEXES = List.of("idx_member_username", "idx_member_age", "idx_member_team", "idx_team_name");
+
+    @Param({"1000000"})
+    int members;
+
+    @Param({"false", "true"})
+    boolean indexes;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberSearchCondition byUsername = new MemberSearchCondition();
+    MemberSearchCondition byAgeRange = new MemberSearchCondition();
+    MemberSearchCondition byTeamAndAge = new MemberSearchCondition();
+    String username;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        if (!indexes) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            INDEXES.forEach(index -> jdbcTemplate.execute("drop index if exists " + index));
+        }
+        BenchmarkApplication.seed(context, members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+        username = "member" + members / 2;
+        byUsername.setUsername(username);
+        // 나이는 0~99가 고르게 분포하므로 약 1% 선택
+        byAgeRange.setAgeGoe(42);
+        byAgeRange.setAgeLoe(42);
+        byTeamAndAge.setTeamName("team3");
+        byTeamAndAge.setAgeGoe(42);
+        byTeamAndAge.setAgeLoe(42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> findByUsername() {
+        return memberJpaRepository.findByUsername(username);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByUsername() {
+        return memberJpaRepository.search(byUsername);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByAgeRange() {
+        return memberJpaRepository.search(byAgeRange);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByTeamAndAge() {
+        return memberJpaRepository.search(byTeamAndAge);
+    }
+}
@@ -0,0 +1,66 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.CursorPage;
+import com.newest.querydsl.dto.MemberCursor;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * 페이지 깊이에 따른 searchPageComplex(offset)와 searchByCursor(keyset) 비교.
+ * offset 방식은 깊이에 비례해 느려지고 keyset 방식은 깊이와 무관하게 일정해야 한다.
+ */
+@State(Scope.Benchmark)
+public class MemberPagingBenchmark {
+
+    static final int PAGE_SIZE = 20;
+
+    @Param({"100000"})
+    int members;
+
+    @Param({"0", "100", "1000", "4900"})
+    int page;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest;
+    MemberCursor cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, members);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        pageRequest = PageRequest.of(page, PAGE_SIZE, Sort.by("id"));
+        // member_id가 1부터 연속이므로 page 번째 페이지 직전 row의 id로 같은 위치의 커서를 만든다
+        long lastId = (long) page * PAGE_SIZE;
+        cursor = page == 0 ? null : new MemberCursor("id", Sort.Direction.ASC, 0, lastId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> offset() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+
+    @Benchmark
+    public CursorPage<MemberTeamDto> keyset() {
+        return memberRepository.searchByCursor(condition, cursor, pageRequest);
+    }
+}
@@ -0,0 +1,63 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+/**
+ * shape별 템플릿을 쓰는 search와 매 요청 BooleanBuilder로 JPQL을 새로 만드는 searchByBuilder 비교.
+ * 결과 row 수가 적은 조건(username)에서 쿼리 생성 비용 차이가 가장 잘 드러난다.
+ */
+@State(Scope.Benchmark)
+public class MemberSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    int members;
+
+    @Param({"username", "teamAndAge"})
+    String condition;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberSearchCondition searchCondition;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+        searchCondition = new MemberSearchCondition();
+        if ("username".equals(condition)) {
+            searchCondition.setUsername("member" + members / 2);
+        } else {
+            searchCondition.setTeamName("team3");
+            searchCondition.setAgeGoe(20);
+            searchCondition.setAgeLoe(30);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberJpaRepository.search(searchCondition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(searchCondition);
+    }
+}
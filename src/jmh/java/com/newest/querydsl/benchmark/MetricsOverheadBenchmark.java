@@ -0,0 +1,54 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+/**
+ * 리포지토리 메트릭(aspect + p6spy statement 카운터)을 켰을 때의 오버헤드.
+ * 쿼리 자체가 가장 짧은 단건 username 검색에서 측정하므로 여기서 몇 % 이내면 다른 메서드는 그보다 작다.
+ */
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    @Param({"1000"})
+    int members;
+
+    @Param({"false", "true"})
+    boolean metrics;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--querydsl.member.metrics.enabled=" + metrics,
+                // statement 카운터는 p6spy 리스너이므로 로그 출력 없이 decorator만 켠다
+                "--decorator.datasource.enabled=" + metrics,
+                "--decorator.datasource.p6spy.enable-logging=false");
+        BenchmarkApplication.seed(context, members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        condition.setUsername("member" + members / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberJpaRepository.search(condition);
+    }
+}
@@ -0,0 +1,61 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * count가 필요한 첫 페이지 조회의 응답 시간 분포(p50/p99) 비교.
+ * parallel=true면 content와 count 쿼리가 서로 다른 커넥션에서 동시에 실행된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PageLatencyBenchmark {
+
+    @Param({"100000"})
+    int members;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest = PageRequest.of(0, 20);
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--querydsl.member.page.parallel-count=" + parallel);
+        BenchmarkApplication.seed(context, members);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        // 첫 페이지가 가득 차야 count 쿼리가 생략되지 않는다
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(80);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> firstPage() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+}
@@ -0,0 +1,99 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.MemberDto;
+import com.newest.querydsl.dto.QMemberDto;
+import static com.newest.querydsl.entity.QMember.member;
+import com.newest.querydsl.projection.FastProjections;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+/**
+ * QuerydslBasicTest의 DTO 조회 방식(setter, field, 생성자, @QueryProjection)별 row 매핑 비용 비교.
+ * fast* 는 같은 방식을 FastProjections(리플렉션 없는 매퍼)로 실행한다.
+ */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory queryFactory;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, members);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fields() {
+        return queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fastBean() {
+        return queryFactory
+                .select(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fastFields() {
+        return queryFactory
+                .select(FastProjections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fastConstructor() {
+        return queryFactory
+                .select(FastProjections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+    }
+}
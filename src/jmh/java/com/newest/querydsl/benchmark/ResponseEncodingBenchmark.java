@@ -0,0 +1,86 @@
+package com.newest.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.service.MemberColumnarEncoder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 검색 결과 직렬화: 기존 Jackson JSON 배열과 컬럼 단위 바이너리의 직렬화 시간과 응답 크기(bytes 보조 지표) 비교.
+ * DB 조회는 빼고 인코딩만 측정하며, 출력은 크기만 세고 버린다.
+ */
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    List<MemberTeamDto> result = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        // BenchmarkApplication.seed와 같은 모양: username = "member" + id, 팀 2개를 번갈아 배정
+        for (long id = 1; id <= rows; id++) {
+            long teamId = id % 2 + 1;
+            result.add(new MemberTeamDto(id, "member" + id, (int) (id % 100), teamId, "team" + teamId));
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Wire {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    public long jackson(Wire wire) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, result);
+        wire.bytes = out.count;
+        return out.count;
+    }
+
+    @Benchmark
+    public long columnar(Wire wire) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (MemberColumnarEncoder encoder = new MemberColumnarEncoder(out, 4_096)) {
+            for (MemberTeamDto row : result) {
+                encoder.write(row);
+            }
+            encoder.finish();
+        }
+        wire.bytes = out.count;
+        return out.count;
+    }
+
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * username 조건 N개를 search 반복 호출(N번 왕복)과 searchAll(배치당 1번 왕복)로 조회하는 비교.
+ */
+@State(Scope.Benchmark)
+public class SearchAllBenchmark {
+
+    @Param({"100", "10000"})
+    int conditions;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    List<MemberSearchCondition> batch = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, 100_000);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        for (int i = 0; i < conditions; i++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername("member" + ThreadLocalRandom.current().nextInt(100_000));
+            batch.add(condition);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<List<MemberTeamDto>> searchEach() {
+        List<List<MemberTeamDto>> result = new ArrayList<>(batch.size());
+        for (MemberSearchCondition condition : batch) {
+            result.add(memberRepository.search(condition));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Map<MemberSearchCondition, List<MemberTeamDto>> searchAll() {
+        return memberRepository.searchAll(batch);
+    }
+}
@@ -0,0 +1,60 @@
+package com.newest.querydsl.benchmark;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+/**
+ * username 접두어/부분 문자열 검색: LIKE(index=false)와 trigram 인덱스 + id IN(index=true) 비교.
+ * username은 "member" + id 이므로 "4242"는 약 20건(100000 기준)을 고른다.
+ */
+@State(Scope.Benchmark)
+public class UsernameSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    int members;
+
+    @Param({"false", "true"})
+    boolean index;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberSearchCondition contains = new MemberSearchCondition();
+    MemberSearchCondition startsWith = new MemberSearchCondition();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--querydsl.member.username-index.enabled=" + index);
+        BenchmarkApplication.seed(context, members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+        contains.setUsernameContains("4242");
+        startsWith.setUsernameStartsWith("member4242");
+        // 인덱스는 첫 조회 때 만들어지므로 측정 전에 한 번 실행한다
+        memberJpaRepository.search(contains);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> contains() {
+        return memberJpaRepository.search(contains);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> startsWith() {
+        return memberJpaRepository.search(startsWith);
+    }
+}
@@ -0,0 +1,113 @@
+package com.newest.querydsl.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키의 로딩이 이미 진행 중이면 새로 실행하지 않고 그 결과를 함께 기다린다.
+ * 진행 중 목록은 키 해시로 나눈 stripe마다 따로 잠그므로 서로 다른 키끼리는 거의 경합하지 않는다.
+ * 결과는 보관하지 않는다. 로딩이 끝나면 다음 호출은 다시 실행한다.
+ */
+public class SingleFlight<K, V> {
+
+    private final Stripe<K, V>[] stripes;
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public SingleFlight(int stripes) {
+        // hash & (n - 1)로 고르기 위해 2의 거듭제곱으로 올린다
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe<>();
+        }
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        Stripe<K, V> stripe = stripeFor(key);
+        CompletableFuture<V> running;
+        CompletableFuture<V> call = new CompletableFuture<>();
+        synchronized (stripe) {
+            running = stripe.calls.putIfAbsent(key, call);
+        }
+        if (running != null) {
+            followers.increment();
+            return await(running);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (stripe) {
+                stripe.calls.remove(key, call);
+            }
+        }
+    }
+
+    /**
+     * 진행 중인 로딩을 목록에서 뺀다. 이미 합류한 호출은 그 결과를 받고, 이후 호출은 새로 실행한다.
+     * 데이터가 바뀐 뒤에 시작한 요청이 바뀌기 전에 시작된 조회 결과를 받지 않게 할 때 쓴다.
+     */
+    public void invalidateAll() {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.calls.clear();
+            }
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * 직접 로딩을 실행한 호출 수
+     */
+    public long leaderCount() {
+        return leaders.sum();
+    }
+
+    /**
+     * 진행 중인 로딩에 합류해 결과를 공유받은 호출 수
+     */
+    public long followerCount() {
+        return followers.sum();
+    }
+
+    private static final class Stripe<K, V> {
+        private final Map<K, CompletableFuture<V>> calls = new HashMap<>();
+    }
+}
@@ -0,0 +1,167 @@
+package com.newest.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.member")
+public class MemberQueryProperties {
+
+    private final CountCache countCache = new CountCache();
+    private final Stream stream = new Stream();
+    private final SearchCache searchCache = new SearchCache();
+    private final BulkLoad bulkLoad = new BulkLoad();
+    private final BulkUpdate bulkUpdate = new BulkUpdate();
+    private final Page page = new Page();
+    private final Metrics metrics = new Metrics();
+    private final SqlBudget sqlBudget = new SqlBudget();
+    private final IndexAdvisor indexAdvisor = new IndexAdvisor();
+    private final UsernameIndex usernameIndex = new UsernameIndex();
+    private final ReadModel readModel = new ReadModel();
+    private final SearchAll searchAll = new SearchAll();
+    private final BatchLoader batchLoader = new BatchLoader();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final Export export = new Export();
+
+    @Getter
+    @Setter
+    public static class CountCache {
+        // 같은 검색 조건의 2..N 페이지 요청은 이 시간 동안 count 쿼리를 다시 실행하지 않는다
+        private Duration ttl = Duration.ofSeconds(10);
+        private int maxSize = 1_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Stream {
+        // 스트리밍 조회 시 JDBC 드라이버가 한 번에 가져오는 row 수
+        private int fetchSize = 500;
+        // NDJSON 응답을 이 row 수마다 클라이언트로 flush 한다
+        private int flushEvery = 1_000;
+        // 컬럼 단위 응답의 block 하나에 담는 row 수
+        private int columnarBlockRows = 4_096;
+    }
+
+    @Getter
+    @Setter
+    public static class SearchCache {
+        private boolean enabled = true;
+        private int maxSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class BulkLoad {
+        // 이 row 수마다 flush/clear 후 커밋한다. hibernate.jdbc.batch_size와 맞추는 것이 좋다
+        private int chunkSize = 1_000;
+        // local 프로필 초기 데이터 회원 수
+        private int initMembers = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class BulkUpdate {
+        // 청크 하나가 이 시간 안에 끝나도록 id 범위 크기를 조정한다
+        private Duration targetChunkLatency = Duration.ofMillis(200);
+        private long initialChunkSize = 1_000;
+        private long minChunkSize = 100;
+        private long maxChunkSize = 100_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Page {
+        // true면 searchPageComplex의 count 쿼리를 별도 커넥션에서 content 쿼리와 동시에 실행한다
+        private boolean parallelCount = false;
+        // content/count 쿼리 각각의 타임아웃이자 count 결과를 기다리는 최대 시간
+        private Duration timeout = Duration.ofSeconds(3);
+        private int countPoolSize = 4;
+        private int countQueueCapacity = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        // 리포지토리 메서드별 latency/row 수/SQL 수 기록 여부
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class SqlBudget {
+        // HTTP 요청 하나에서 실행할 수 있는 SQL 수와 같은 모양 SQL의 반복 허용 횟수(N+1 감지)
+        private boolean enabled = true;
+        private int maxStatements = 30;
+        private int maxRepeats = 5;
+        private Mode mode = Mode.WARN;
+
+        public enum Mode {
+            WARN, FAIL
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class IndexAdvisor {
+        // 개발 환경 전용. 리포지토리 메서드가 실행한 SELECT를 모아 EXPLAIN으로 table scan 여부를 확인한다
+        private boolean enabled = false;
+        private int maxStatements = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class UsernameIndex {
+        // username 접두어/부분 문자열 검색용 메모리 trigram 인덱스. 끄면 LIKE로 조회한다
+        private boolean enabled = false;
+        // 후보 id가 이보다 많으면 IN 목록 대신 LIKE로 조회한다
+        private int maxCandidates = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class ReadModel {
+        // true면 시작 시 Member/Team을 메모리 컬럼 저장소에 올리고 search()를 DB 없이 처리한다
+        private boolean enabled = false;
+    }
+
+    @Getter
+    @Setter
+    public static class SearchAll {
+        // searchAll에서 SQL 하나의 IN 목록에 넣는 조건 수
+        private int batchSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class BatchLoader {
+        // 트랜잭션 밖의 findById를 모아 IN 조회 한 번으로 처리
+        private boolean enabled = false;
+        private int maxBatchSize = 100;
+        private Duration maxWait = Duration.ofMillis(2);
+        private Duration timeout = Duration.ofSeconds(3);
+    }
+
+    @Getter
+    @Setter
+    public static class SingleFlight {
+        // 동시에 들어온 같은 검색(search, searchPageComplex)을 한 번만 실행
+        private boolean enabled = true;
+        private int stripes = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+        // 작업마다 하위 디렉터리(작업 id)를 만들어 checkpoint, 구간별 part 파일, 결과 파일을 둔다
+        private String directory = System.getProperty("java.io.tmpdir") + "/member-export";
+        // 동시에 스캔하는 id 구간 수(= 사용하는 커넥션 수)
+        private int parallelism = 4;
+        // id 구간 하나의 크기. 구간이 끝날 때마다 checkpoint를 남긴다
+        private long rangeSize = 100_000;
+    }
+}
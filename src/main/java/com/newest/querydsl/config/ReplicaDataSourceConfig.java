@@ -0,0 +1,43 @@
+package com.newest.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * querydsl.datasource.replica.url이 설정되면 spring.datasource(primary)와 replica를 묶은 라우팅 DataSource를 등록한다.
+ * 두 커넥션 풀은 빈으로 등록하지 않으므로 p6spy 등 DataSource 데코레이터는 라우팅 DataSource에만 한 번 적용된다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    ReplicaRouting replicaRouting(ReplicaProperties properties) {
+        return new ReplicaRouting(properties);
+    }
+
+    @Bean
+    ReplicaRoutingDataSource dataSource(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties,
+                                        ReplicaRouting replicaRouting) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        DataSourceBuilder<HikariDataSource> replicaBuilder = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword());
+        if (hasText(replicaProperties.getDriverClassName())) {
+            // 지정하지 않으면 url에서 드라이버를 추론한다
+            replicaBuilder.driverClassName(replicaProperties.getDriverClassName());
+        }
+        HikariDataSource replica = replicaBuilder.build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return new ReplicaRoutingDataSource(primary, replica, replicaRouting);
+    }
+}
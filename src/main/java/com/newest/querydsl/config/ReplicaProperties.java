@@ -0,0 +1,40 @@
+package com.newest.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 읽기 전용 replica 설정. url이 있을 때만 읽기/쓰기 라우팅이 켜진다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.datasource.replica")
+public class ReplicaProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    // 이 시간보다 오래된 쓰기는 replica에 반영되었다고 본다
+    private Duration maxLag = Duration.ofSeconds(1);
+    // 메서드가 놓쳐도 되는 최근 쓰기의 나이. 0이면 max-lag 안에 쓰기가 있었을 때 primary에서 읽는다
+    private Duration defaultLagTolerance = Duration.ZERO;
+    // "MemberJpaRepository.search" 처럼 클래스.메서드 단위로 지정 (yaml에서는 "[...]"로 감싼다)
+    private Map<String, Duration> lagTolerance = new HashMap<>();
+
+    public Duration lagTolerance(String method) {
+        return method == null ? defaultLagTolerance : lagTolerance.getOrDefault(method, defaultLagTolerance);
+    }
+
+    /**
+     * 최근 쓰기를 놓쳐도 되는 메서드가 하나라도 있으면 true
+     */
+    public boolean allowsLaggedReads() {
+        return !defaultLagTolerance.isZero() || lagTolerance.values().stream().anyMatch(tolerance -> !tolerance.isZero());
+    }
+}
@@ -0,0 +1,80 @@
+package com.newest.querydsl.config;
+
+import com.newest.querydsl.event.BulkChangedEvent;
+import com.newest.querydsl.event.DataVersion;
+import com.newest.querydsl.event.MemberChangedEvent;
+import com.newest.querydsl.event.TeamChangedEvent;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 현재 연결을 primary와 replica 중 어디로 보낼지 정한다.
+ * 읽기 전용 트랜잭션이고, 아직 replica에 반영되지 않았을 수 있는 최근 쓰기(max-lag 이내)를
+ * 호출한 리포지토리 메서드가 허용하는 경우에만 replica를 쓴다. 마지막 쓰기 시각은 커밋 이벤트로 갱신한다.
+ */
+@Aspect
+public class ReplicaRouting {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaProperties properties;
+    private final LongSupplier nanoClock;
+    private final ThreadLocal<String> currentMethod = new ThreadLocal<>();
+    private volatile long lastWriteNanos;
+
+    public ReplicaRouting(ReplicaProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    ReplicaRouting(ReplicaProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        // 시작 직후에는 max-lag 동안 쓰기가 있었던 것으로 취급한다
+        this.lastWriteNanos = nanoClock.getAsLong();
+    }
+
+    public Target currentTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        long sinceLastWrite = nanoClock.getAsLong() - lastWriteNanos;
+        long unreplicatedWindow = properties.getMaxLag().toNanos() - properties.lagTolerance(currentMethod.get()).toNanos();
+        return sinceLastWrite >= unreplicatedWindow ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    /**
+     * max-lag 안에 쓰기가 있었고 lag을 허용하는 메서드가 있어, 지금 조회가 그 쓰기가 빠진 replica 결과일 수 있으면 true
+     */
+    public boolean mayReadUnreplicatedWrites() {
+        return properties.allowsLaggedReads() && nanoClock.getAsLong() - lastWriteNanos < properties.getMaxLag().toNanos();
+    }
+
+    @Around("execution(public * *(..)) && (within(com.newest.querydsl.repository.MemberJpaRepository)"
+            + " || within(com.newest.querydsl.repository.MemberRepositoryImpl)"
+            + " || within(com.newest.querydsl.repository.TeamRepositoryImpl))")
+    public Object trackMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (currentMethod.get() != null) {
+            return joinPoint.proceed();
+        }
+        currentMethod.set(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            currentMethod.remove();
+        }
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener({MemberChangedEvent.class, TeamChangedEvent.class, BulkChangedEvent.class})
+    public void onWriteCommitted() {
+        lastWriteNanos = nanoClock.getAsLong();
+    }
+}
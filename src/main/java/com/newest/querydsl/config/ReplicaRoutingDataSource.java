@@ -0,0 +1,47 @@
+package com.newest.querydsl.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * primary/replica 라우팅 DataSource.
+ * JpaTransactionManager는 트랜잭션 시작 시 readOnly 플래그가 동기화되기 전에 커넥션을 얻으므로,
+ * LazyConnectionDataSourceProxy로 실제 커넥션 획득을 첫 SQL 실행 시점까지 미룬다.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements DisposableBean {
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaRouting routing) {
+        this.primary = primary;
+        this.replica = replica;
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return routing.currentTarget();
+            }
+        };
+        router.setTargetDataSources(Map.of(ReplicaRouting.Target.PRIMARY, primary, ReplicaRouting.Target.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        close(primary);
+        close(replica);
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
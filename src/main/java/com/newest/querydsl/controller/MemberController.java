@@ -1,15 +1,29 @@
 package com.newest.querydsl.controller;
 
+import com.newest.querydsl.config.ReplicaRouting;
+import com.newest.querydsl.dto.CursorPage;
+import com.newest.querydsl.dto.MemberCursor;
 import com.newest.querydsl.dto.MemberSearchCondition;
 import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.event.DataVersion;
 import com.newest.querydsl.repository.MemberJpaRepository;
 import com.newest.querydsl.repository.MemberRepository;
+import com.newest.querydsl.service.MemberColumnarEncoder;
+import com.newest.querydsl.service.MemberStreamService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,15 +32,69 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberStreamService memberStreamService;
+    private final DataVersion dataVersion;
+    // replica 설정이 없으면 빈이 없다
+    private final ObjectProvider<ReplicaRouting> replicaRouting;
 
+    // 데이터 버전이 그대로면 If-None-Match에 304로 답하고 조회와 직렬화를 하지 않는다
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
+    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, WebRequest request) {
+        if (notModified(request, "/v1/members?" + condition.normalize())) {
+            return null;
+        }
         return memberJpaRepository.search(condition);
     }
 
+    // 같은 검색 결과를 컬럼 단위 바이너리로 커서에서 바로 흘려보낸다 (Accept: application/x-member-columnar)
+    @GetMapping(value = "/v1/members", produces = MemberColumnarEncoder.MEDIA_TYPE)
+    public void searchMemberV1Columnar(MemberSearchCondition condition, WebRequest request,
+                                       HttpServletResponse response) throws IOException {
+        if (notModified(request, "/v1/members;columnar?" + condition.normalize())) {
+            return;
+        }
+        response.setContentType(MemberColumnarEncoder.MEDIA_TYPE);
+        memberStreamService.writeColumnar(condition, response.getOutputStream());
+    }
+
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if (notModified(request, "/v2/members?" + condition.normalize() + "&" + pageable)) {
+            return null;
+        }
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    @GetMapping("/v3/members")
+    public CursorPage<MemberTeamDto> searchMemberV3(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String after,
+                                                    Pageable pageable) {
+        try {
+            MemberCursor cursor = after != null ? MemberCursor.decode(after) : null;
+            return memberRepository.searchByCursor(condition, cursor, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(value = "/members/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamMembers(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        memberStreamService.writeNdjson(condition, response.getOutputStream());
+    }
+
+    /**
+     * 데이터 버전으로 만든 ETag를 붙이고, If-None-Match와 같으면 true.
+     * 이 조회가 최근 쓰기가 빠진 replica 결과일 수 있으면 새 버전을 붙이지 않도록 ETag 없이 조회한다.
+     */
+    private boolean notModified(WebRequest request, String resource) {
+        String etag = dataVersion.etag(resource);
+        // 버전을 읽은 뒤에 확인한다. 읽은 버전을 만든 쓰기는 버전보다 먼저 마지막 쓰기 시각에 반영된다
+        ReplicaRouting routing = replicaRouting.getIfAvailable();
+        if (routing != null && routing.mayReadUnreplicatedWrites()) {
+            return false;
+        }
+        return request.checkNotModified(etag);
+    }
+
 }
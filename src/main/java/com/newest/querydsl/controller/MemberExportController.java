@@ -0,0 +1,53 @@
+package com.newest.querydsl.controller;
+
+import com.newest.querydsl.dto.ExportJobDto;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.service.MemberExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberExportController {
+
+    private final MemberExportService memberExportService;
+
+    @PostMapping("/members/exports")
+    public ResponseEntity<ExportJobDto> start(MemberSearchCondition condition) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(memberExportService.start(condition));
+    }
+
+    @GetMapping("/members/exports/{jobId}")
+    public ExportJobDto status(@PathVariable String jobId) {
+        return memberExportService.status(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping("/members/exports/{jobId}/resume")
+    public ResponseEntity<ExportJobDto> resume(@PathVariable String jobId) {
+        return memberExportService.resume(jobId)
+                .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    // 완료되지 않았거나 없는 작업이면 404
+    @GetMapping("/members/exports/{jobId}/file")
+    public ResponseEntity<Resource> file(@PathVariable String jobId) {
+        return memberExportService.result(jobId)
+                .map(path -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"members-" + jobId + ".csv.gz\"")
+                        .contentType(MediaType.parseMediaType("application/gzip"))
+                        .<Resource>body(new FileSystemResource(path)))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
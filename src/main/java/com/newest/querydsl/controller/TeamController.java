@@ -0,0 +1,31 @@
+package com.newest.querydsl.controller;
+
+import com.newest.querydsl.dto.TeamAgeStatisticsDto;
+import com.newest.querydsl.dto.TeamRosterDto;
+import com.newest.querydsl.repository.TeamRepository;
+import com.newest.querydsl.repository.TeamStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+    private final TeamStatistics teamStatistics;
+
+    @GetMapping("/teams")
+    public Page<TeamRosterDto> teams(Pageable pageable) {
+        return teamRepository.findRosters(pageable);
+    }
+
+    @GetMapping("/teams/statistics")
+    public List<TeamAgeStatisticsDto> statistics() {
+        return teamStatistics.findAll();
+    }
+}
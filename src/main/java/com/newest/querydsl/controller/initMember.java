@@ -1,14 +1,20 @@
 package com.newest.querydsl.controller;
 
+import com.newest.querydsl.config.MemberQueryProperties;
 import com.newest.querydsl.entity.Member;
 import com.newest.querydsl.entity.Team;
+import com.newest.querydsl.repository.MemberBulkLoader;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
 
 @Profile("local")
 @Component
@@ -22,22 +28,29 @@ public class initMember {
     }
 
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
         @PersistenceContext
         private EntityManager em;
 
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-
-            em.persist(teamA);
-            em.persist(teamB);
+        private final PlatformTransactionManager transactionManager;
+        private final MemberBulkLoader memberBulkLoader;
+        private final MemberQueryProperties properties;
 
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
+        public void init() {
+            List<Team> teams = new TransactionTemplate(transactionManager).execute(status -> {
+                Team teamA = new Team("teamA");
+                Team teamB = new Team("teamB");
+
+                em.persist(teamA);
+                em.persist(teamB);
+                return List.of(teamA, teamB);
+            });
+
+            // 회원은 chunk 단위로 배치 insert/커밋 하므로 init-members를 크게 잡아도 메모리가 늘지 않는다
+            int initMembers = properties.getBulkLoad().getInitMembers();
+            memberBulkLoader.load(IntStream.range(0, initMembers)
+                    .mapToObj(i -> new Member("member" + i, i, teams.get(i % 2))));
         }
     }
 
@@ -0,0 +1,18 @@
+package com.newest.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class ExportJobDto {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String jobId;
+    private final State state;
+    private final int totalRanges;
+    private final int completedRanges;
+    private final long rows;
+    private final String error;
+}
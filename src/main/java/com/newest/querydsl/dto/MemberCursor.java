@@ -0,0 +1,58 @@
+package com.newest.querydsl.dto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset 페이징용 커서. 마지막 row의 정렬 키와 member.id를 담아 클라이언트에는 불투명한 문자열로 전달한다.
+ */
+@Getter
+@EqualsAndHashCode
+public class MemberCursor {
+
+    private static final String DELIMITER = ":";
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final int age;
+    private final Long memberId;
+
+    public MemberCursor(String property, Sort.Direction direction, int age, Long memberId) {
+        this.property = property;
+        this.direction = direction;
+        this.age = age;
+        this.memberId = memberId;
+    }
+
+    public static MemberCursor of(Sort.Order order, MemberTeamDto last) {
+        return new MemberCursor(order.getProperty(), order.getDirection(), last.getAge(), last.getMemberId());
+    }
+
+    public boolean matches(Sort.Order order) {
+        return property.equals(order.getProperty()) && direction == order.getDirection();
+    }
+
+    public String encode() {
+        String raw = property + DELIMITER + direction + DELIMITER + age + DELIMITER + memberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(DELIMITER);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("잘못된 커서: " + cursor);
+            }
+            return new MemberCursor(parts[0], Sort.Direction.valueOf(parts[1]),
+                    Integer.parseInt(parts[2]), Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // Base64 디코딩, enum, 숫자 파싱 오류 모두 IllegalArgumentException 계열
+            throw new IllegalArgumentException("잘못된 커서: " + cursor, e);
+        }
+    }
+}
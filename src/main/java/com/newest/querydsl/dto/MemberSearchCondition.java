@@ -1,13 +1,30 @@
 package com.newest.querydsl.dto;
 
 import lombok.Data;
+import static org.springframework.util.StringUtils.hasText;
 
 @Data
 public class MemberSearchCondition {
 
-        // 회원명, 팀명, 나이(ageGoe, ageLoe)
+        // 회원명, 회원명 접두어/부분 문자열, 팀명, 나이(ageGoe, ageLoe)
         private String username;
+        private String usernameStartsWith;
+        private String usernameContains;
         private String teamName;
         private Integer ageGoe;
         private Integer ageLoe;
+
+        /**
+         * 빈 문자열 조건을 null로 맞춘 복사본. 같은 쿼리가 되는 조건끼리 equals가 같도록 캐시 키로 사용한다.
+         */
+        public MemberSearchCondition normalize() {
+                MemberSearchCondition normalized = new MemberSearchCondition();
+                normalized.setUsername(hasText(username) ? username : null);
+                normalized.setUsernameStartsWith(hasText(usernameStartsWith) ? usernameStartsWith : null);
+                normalized.setUsernameContains(hasText(usernameContains) ? usernameContains : null);
+                normalized.setTeamName(hasText(teamName) ? teamName : null);
+                normalized.setAgeGoe(ageGoe);
+                normalized.setAgeLoe(ageLoe);
+                return normalized;
+        }
 }
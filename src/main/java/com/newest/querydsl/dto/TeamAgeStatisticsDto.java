@@ -0,0 +1,25 @@
+package com.newest.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamAgeStatisticsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long sum;
+    private double avg;
+    private int min;
+    private int max;
+
+    public TeamAgeStatisticsDto(Long teamId, String teamName, long count, long sum, int min, int max) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? 0 : (double) sum / count;
+        this.min = min;
+        this.max = max;
+    }
+}
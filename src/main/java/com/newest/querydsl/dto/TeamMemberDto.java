@@ -0,0 +1,24 @@
+package com.newest.querydsl.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamMemberDto {
+
+    // 팀별로 묶을 때만 쓰고 응답에는 상위 TeamRosterDto.teamId로 나간다
+    @JsonIgnore
+    private Long teamId;
+    private Long memberId;
+    private String username;
+    private int age;
+
+    @QueryProjection
+    public TeamMemberDto(Long teamId, Long memberId, String username, int age) {
+        this.teamId = teamId;
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+    }
+}
@@ -0,0 +1,19 @@
+package com.newest.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TeamRosterDto {
+
+    private Long teamId;
+    private String name;
+    private List<TeamMemberDto> members = new ArrayList<>();
+
+    public TeamRosterDto(Long teamId, String name) {
+        this.teamId = teamId;
+        this.name = name;
+    }
+}
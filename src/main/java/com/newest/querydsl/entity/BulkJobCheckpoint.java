@@ -0,0 +1,45 @@
+package com.newest.querydsl.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 청크 단위 벌크 연산의 진행 상황. 각 청크와 같은 트랜잭션에서 갱신되므로 중단된 작업은 lastId 다음부터 이어서 실행한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BulkJobCheckpoint {
+
+    @Id
+    private String jobId;
+    private Long lastId;
+    private long processedRows;
+    private int completedChunks;
+    private boolean completed;
+    private LocalDateTime updatedAt;
+
+    public BulkJobCheckpoint(String jobId) {
+        this.jobId = jobId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(long lastId, long rows) {
+        this.lastId = lastId;
+        this.processedRows += rows;
+        this.completedChunks++;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void complete() {
+        this.completed = true;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
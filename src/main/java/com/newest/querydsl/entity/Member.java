@@ -4,9 +4,13 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,12 +18,22 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@Table(indexes = {
+        // findByUsername, search(username)
+        @Index(name = "idx_member_username", columnList = "username"),
+        // search(ageGoe/ageLoe) 범위 조회와 (age, member_id) keyset 페이징
+        @Index(name = "idx_member_age", columnList = "age, member_id"),
+        // team 조인과 팀별 roster/통계 조회
+        @Index(name = "idx_member_team", columnList = "team_id, age")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
-    @Id @GeneratedValue
+    // 대량 insert 시 시퀀스 조회를 줄이기 위해 pooled 방식으로 100개씩 미리 할당한다
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -0,0 +1,8 @@
+package com.newest.querydsl.event;
+
+/**
+ * 엔티티 단위 이벤트 없이 여러 row가 바뀐 경우(Querydsl update/delete 벌크 연산).
+ * 받는 쪽은 해당 엔티티에 대해 가진 파생 상태를 통째로 다시 만들어야 한다.
+ */
+public record BulkChangedEvent(Class<?> entityType) {
+}
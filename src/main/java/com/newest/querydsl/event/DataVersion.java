@@ -0,0 +1,54 @@
+package com.newest.querydsl.event;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Member/Team 데이터 전체의 버전. 커밋된 변경(벌크 포함)마다 1씩 오른다.
+ * 조회 결과의 ETag를 만들 때 쓰며, 버전이 같으면 같은 요청의 결과도 같다고 본다.
+ * <p>
+ * 버전은 쿼리 실행 전에 읽어야 한다. 그래야 쿼리 도중 커밋된 변경이 있어도 결과가 옛 버전으로 표시될 뿐,
+ * 옛 결과가 새 버전으로 표시되지 않는다. 같은 이유로 캐시, 인덱스 등 파생 상태를 정리하는 리스너는
+ * DERIVED_STATE_ORDER로 먼저 실행되고, 버전은 그 뒤에 올린다.
+ * <p>
+ * lag을 허용한 메서드는 max-lag 동안 최근 쓰기가 빠진 replica 결과를 돌려줄 수 있다.
+ * 그 동안에는 옛 결과에 새 버전이 붙을 수 있으므로 MemberController는 ETag를 붙이지 않는다.
+ */
+@Component
+public class DataVersion {
+
+    /**
+     * 변경 이벤트로 캐시/인덱스 등 조회에 쓰이는 파생 상태를 정리하는 리스너의 순서. 버전 증가(VERSION_ORDER)보다 먼저 실행된다.
+     */
+    public static final int DERIVED_STATE_ORDER = 0;
+    public static final int VERSION_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    // 재시작하거나 인스턴스가 여러 개여도 같은 버전 숫자가 다른 데이터를 가리키지 않도록 붙인다
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    @Order(VERSION_ORDER)
+    @EventListener({MemberChangedEvent.class, TeamChangedEvent.class, BulkChangedEvent.class})
+    public void onChangeCommitted() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * 현재 버전과 요청 식별 문자열(경로, 정규화된 파라미터)로 만든 약한 ETag 값
+     */
+    public String etag(String request) {
+        String raw = epoch + ":" + current() + ":" + request;
+        return "W/\"" + DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
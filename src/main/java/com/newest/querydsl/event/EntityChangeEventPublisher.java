@@ -0,0 +1,151 @@
+package com.newest.querydsl.event;
+
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Member/Team 변경을 커밋 이후에 스프링 이벤트로 발행한다.
+ * 롤백된 변경은 발행되지 않으므로 캐시 등 파생 상태는 커밋된 데이터만 반영하게 된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeEventPublisher implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * 벌크 연산은 엔티티 이벤트를 남기지 않으므로 실행한 쪽에서 직접 알린다. 트랜잭션 안이면 커밋 후에 발행한다.
+     */
+    public void publishBulkChange(Class<?> entityType) {
+        BulkChangedEvent event = new BulkChangedEvent(entityType);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(event);
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            eventPublisher.publishEvent(new MemberChangedEvent(null,
+                    memberSnapshot(event.getPersister(), event.getId(), event.getState())));
+        } else if (event.getEntity() instanceof Team team) {
+            eventPublisher.publishEvent(new TeamChangedEvent(team.getId(), null, team.getName()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            // oldState는 detached 엔티티를 select 없이 update 한 경우 null일 수 있다
+            MemberSnapshot before = event.getOldState() != null
+                    ? memberSnapshot(event.getPersister(), event.getId(), event.getOldState())
+                    : null;
+            MemberSnapshot after = memberSnapshot(event.getPersister(), event.getId(), event.getState());
+            if (before == null) {
+                eventPublisher.publishEvent(new BulkChangedEvent(Member.class));
+            } else {
+                eventPublisher.publishEvent(new MemberChangedEvent(before, after));
+            }
+        } else if (event.getEntity() instanceof Team team) {
+            String nameBefore = event.getOldState() != null
+                    ? (String) property(event.getPersister(), event.getOldState(), "name")
+                    : null;
+            eventPublisher.publishEvent(new TeamChangedEvent(team.getId(), nameBefore, team.getName()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            eventPublisher.publishEvent(new MemberChangedEvent(
+                    memberSnapshot(event.getPersister(), event.getId(), event.getDeletedState()), null));
+        } else if (event.getEntity() instanceof Team team) {
+            String name = (String) property(event.getPersister(), event.getDeletedState(), "name");
+            eventPublisher.publishEvent(new TeamChangedEvent(team.getId(), name, null));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityType = persister.getMappedClass();
+        return entityType == Member.class || entityType == Team.class;
+    }
+
+    private MemberSnapshot memberSnapshot(EntityPersister persister, Object id, Object[] state) {
+        return new MemberSnapshot(
+                (Long) id,
+                (String) property(persister, state, "username"),
+                (Integer) property(persister, state, "age"),
+                teamId(property(persister, state, "team")));
+    }
+
+    private Object property(EntityPersister persister, Object[] state, String name) {
+        String[] propertyNames = persister.getPropertyNames();
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(name)) {
+                return state[i];
+            }
+        }
+        throw new IllegalArgumentException(persister.getEntityName() + "에 " + name + " 속성이 없습니다");
+    }
+
+    private Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        // 초기화되지 않은 프록시를 건드리지 않고 식별자만 꺼낸다
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
@@ -0,0 +1,19 @@
+package com.newest.querydsl.event;
+
+/**
+ * 커밋된 Member 변경. 추가면 before가, 삭제면 after가 null이다.
+ */
+public record MemberChangedEvent(MemberSnapshot before, MemberSnapshot after) {
+
+    public Long memberId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    public boolean isInsert() {
+        return before == null;
+    }
+
+    public boolean isDelete() {
+        return after == null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.newest.querydsl.event;
+
+/**
+ * 커밋 시점의 Member 상태. 이벤트를 받는 쪽이 엔티티(영속성 컨텍스트)에 의존하지 않도록 값만 복사해 둔다.
+ */
+public record MemberSnapshot(Long id, String username, int age, Long teamId) {
+}
@@ -0,0 +1,29 @@
+package com.newest.querydsl.event;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 벌크 변경 후 2차 캐시를 비운다.
+ * JPQL(Querydsl) update/delete는 Hibernate가 해당 엔티티 리전을 직접 무효화하지만,
+ * JDBC 등 Hibernate를 거치지 않은 변경도 BulkChangedEvent로 알리면 같은 방식으로 정리된다.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+
+    private final SessionFactory sessionFactory;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener
+    public void onBulkChanged(BulkChangedEvent event) {
+        sessionFactory.getCache().evict(event.entityType());
+        sessionFactory.getCache().evictQueryRegions();
+    }
+}
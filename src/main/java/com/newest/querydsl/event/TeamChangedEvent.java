@@ -0,0 +1,11 @@
+package com.newest.querydsl.event;
+
+/**
+ * 커밋된 Team 변경. 추가면 nameBefore가, 삭제면 nameAfter가 null이다.
+ */
+public record TeamChangedEvent(Long teamId, String nameBefore, String nameAfter) {
+
+    public boolean isDelete() {
+        return nameAfter == null;
+    }
+}
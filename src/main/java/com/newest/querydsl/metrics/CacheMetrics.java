@@ -0,0 +1,82 @@
+package com.newest.querydsl.metrics;
+
+import com.newest.querydsl.cache.BoundedCache;
+import com.newest.querydsl.cache.SingleFlight;
+import com.newest.querydsl.repository.MemberCountCache;
+import com.newest.querydsl.repository.MemberSearchCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * BoundedCache의 hit/miss/eviction 카운터와 크기, single-flight 실행/공유 수, Hibernate 2차 캐시 리전별 hit ratio를 meter로 노출한다.
+ * (리전별 요청 수 자체는 hibernate-micrometer가 hibernate.second.level.cache.requests로 노출한다)
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final MemberCountCache countCache;
+    private final MemberSearchCache searchCache;
+    private final Statistics hibernateStatistics;
+
+    public CacheMetrics(MemberCountCache countCache, MemberSearchCache searchCache,
+                        EntityManagerFactory entityManagerFactory) {
+        this.countCache = countCache;
+        this.searchCache = searchCache;
+        this.hibernateStatistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "member.count", countCache.getCache());
+        bind(registry, "member.search", searchCache.getCache());
+        FunctionCounter.builder("querydsl.singleflight.calls", searchCache.getSingleFlight(), SingleFlight::leaderCount)
+                .tag("cache", "member.search").tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("querydsl.singleflight.calls", searchCache.getSingleFlight(), SingleFlight::followerCount)
+                .tag("cache", "member.search").tag("result", "shared")
+                .register(registry);
+
+        // hibernate.generate_statistics가 꺼져 있으면 값이 0으로 남는다
+        for (String region : hibernateStatistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("querydsl.l2cache.hit.ratio", hibernateStatistics,
+                            stats -> ratio(stats.getDomainDataRegionStatistics(region)))
+                    .tag("region", region)
+                    .register(registry);
+        }
+        Gauge.builder("querydsl.l2cache.hit.ratio", hibernateStatistics,
+                        stats -> ratio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()))
+                .tag("region", "query")
+                .register(registry);
+    }
+
+    private static double ratio(CacheRegionStatistics region) {
+        return region == null ? 0 : ratio(region.getHitCount(), region.getMissCount());
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static void bind(MeterRegistry registry, String name, BoundedCache<?, ?> cache) {
+        FunctionCounter.builder("querydsl.cache.gets", cache, BoundedCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("querydsl.cache.gets", cache, BoundedCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("querydsl.cache.evictions", cache, BoundedCache::evictionCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("querydsl.cache.size", cache, BoundedCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,134 @@
+package com.newest.querydsl.metrics;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 개발 환경용 인덱스 점검기.
+ * 리포지토리 메서드 안에서 실행된 SELECT를 모양별로 하나씩 모아 두었다가, H2 EXPLAIN 결과에서 table scan을 찾아 보고한다.
+ * 실행 중에는 SQL 샘플만 저장하고 EXPLAIN은 {@link #analyze()} 호출(또는 종료) 시점에 실행한다.
+ */
+@Slf4j
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "querydsl.member.index-advisor", name = "enabled", havingValue = "true")
+public class IndexAdvisor extends SimpleJdbcEventListener {
+
+    // H2는 인덱스를 쓰지 못한 테이블에 /* PUBLIC.MEMBER.tableScan */ 주석을 붙인다
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* (\\w+)\\.(\\w+)\\.tableScan");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxStatements;
+    private final ThreadLocal<String> currentMethod = new ThreadLocal<>();
+    // 메서드 -> (SQL 모양 -> 값이 채워진 샘플 SQL)
+    private final Map<String, Map<String, String>> samples = new LinkedHashMap<>();
+    private int sampleCount;
+
+    public IndexAdvisor(DataSource dataSource, MemberQueryProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.maxStatements = properties.getIndexAdvisor().getMaxStatements();
+    }
+
+    @Around("execution(public * *(..)) && (within(com.newest.querydsl.repository.MemberJpaRepository)"
+            + " || within(com.newest.querydsl.repository.MemberRepositoryImpl)"
+            + " || within(com.newest.querydsl.repository.TeamRepositoryImpl))")
+    public Object trackMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        String outer = currentMethod.get();
+        if (outer != null) {
+            return joinPoint.proceed();
+        }
+        currentMethod.set(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            currentMethod.remove();
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String method = currentMethod.get();
+        String sql = statementInformation.getSql();
+        if (method == null || e != null || !sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+            return;
+        }
+        String shape = SqlStatementTracker.shape(sql);
+        synchronized (this) {
+            if (sampleCount >= maxStatements) {
+                return;
+            }
+            if (samples.computeIfAbsent(method, m -> new LinkedHashMap<>())
+                    .putIfAbsent(shape, statementInformation.getSqlWithValues()) == null) {
+                sampleCount++;
+            }
+        }
+    }
+
+    /**
+     * 수집한 SQL마다 EXPLAIN을 실행해 table scan이 있는 것만 돌려준다
+     */
+    public List<Finding> analyze() {
+        Map<String, Map<String, String>> snapshot;
+        synchronized (this) {
+            snapshot = new LinkedHashMap<>();
+            samples.forEach((method, bySql) -> snapshot.put(method, new LinkedHashMap<>(bySql)));
+        }
+        List<Finding> findings = new ArrayList<>();
+        snapshot.forEach((method, bySql) -> bySql.values().forEach(sql -> {
+            String plan;
+            try {
+                plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+            } catch (RuntimeException ex) {
+                log.debug("EXPLAIN 실패 [{}]: {}", method, ex.getMessage());
+                return;
+            }
+            Set<String> tables = new LinkedHashSet<>();
+            Matcher matcher = TABLE_SCAN.matcher(plan == null ? "" : plan);
+            while (matcher.find()) {
+                tables.add(matcher.group(2));
+            }
+            if (!tables.isEmpty()) {
+                findings.add(new Finding(method, tables, sql, plan));
+            }
+        }));
+        return findings;
+    }
+
+    public synchronized void reset() {
+        samples.clear();
+        sampleCount = 0;
+    }
+
+    @PreDestroy
+    public void report() {
+        try {
+            analyze().forEach(finding -> log.warn("table scan {} in {}: {}", finding.tables(), finding.method(), finding.sql()));
+        } catch (RuntimeException e) {
+            // 종료 중 DataSource가 먼저 닫힌 경우
+            log.debug("index advisor report skipped: {}", e.getMessage());
+        }
+    }
+
+    public record Finding(String method, Set<String> tables, String sql, String plan) {
+    }
+}
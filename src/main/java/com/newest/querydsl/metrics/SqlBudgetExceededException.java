@@ -0,0 +1,8 @@
+package com.newest.querydsl.metrics;
+
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
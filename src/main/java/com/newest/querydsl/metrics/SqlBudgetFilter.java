@@ -0,0 +1,42 @@
+package com.newest.querydsl.metrics;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * HTTP 요청마다 SQL 예산을 적용한다. open-in-view 동안의 지연 로딩(JSON 직렬화 포함)도 같은 요청으로 센다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "querydsl.member.sql-budget", name = "enabled", matchIfMissing = true)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlStatementTracker tracker;
+    private final MemberQueryProperties properties;
+
+    public SqlBudgetFilter(SqlStatementTracker tracker, MemberQueryProperties properties) {
+        this.tracker = tracker;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MemberQueryProperties.SqlBudget budget = properties.getSqlBudget();
+        SqlScope scope = tracker.open(request.getMethod() + " " + request.getRequestURI(),
+                budget.getMaxStatements(), budget.getMaxRepeats());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+        scope.verify(budget.getMode());
+    }
+}
@@ -0,0 +1,79 @@
+package com.newest.querydsl.metrics;
+
+import com.newest.querydsl.config.MemberQueryProperties.SqlBudget.Mode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 한 단위 작업에서 실행된 SQL 수와 모양별 반복 횟수. {@link SqlStatementTracker#open}으로 열고 반드시 close 한다.
+ */
+@Slf4j
+@Getter
+public class SqlScope implements AutoCloseable {
+
+    private final SqlStatementTracker tracker;
+    private final SqlScope parent;
+    private final String name;
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int statements;
+
+    SqlScope(SqlStatementTracker tracker, SqlScope parent, String name, int maxStatements, int maxRepeats) {
+        this.tracker = tracker;
+        this.parent = parent;
+        this.name = name;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    void record(String shape) {
+        statements++;
+        shapes.merge(shape, 1, Integer::sum);
+    }
+
+    /**
+     * maxRepeats 보다 많이 실행된 SQL 모양 (N+1 의심)
+     */
+    public Map<String, Integer> repeatedShapes() {
+        return shapes.entrySet().stream()
+                .filter(e -> e.getValue() > maxRepeats)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public boolean isOverBudget() {
+        return statements > maxStatements || !repeatedShapes().isEmpty();
+    }
+
+    /**
+     * 예산을 넘었으면 mode에 따라 경고 로그를 남기거나 예외를 던진다
+     */
+    public void verify(Mode mode) {
+        if (!isOverBudget()) {
+            return;
+        }
+        String message = describe();
+        if (mode == Mode.FAIL) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder()
+                .append("SQL budget exceeded [").append(name).append("] statements=").append(statements)
+                .append(" (max ").append(maxStatements).append(")");
+        repeatedShapes().forEach((shape, count) ->
+                sb.append("\n  repeated ").append(count).append("x (max ").append(maxRepeats).append("): ").append(shape));
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        tracker.close(this);
+    }
+}
@@ -0,0 +1,62 @@
+package com.newest.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.regex.Pattern;
+
+/**
+ * 열려 있는 {@link SqlScope}(HTTP 요청, 테스트 메서드 등)마다 실행된 SQL을 모양별로 센다.
+ * scope가 열려 있지 않은 스레드에서는 아무것도 하지 않는다.
+ */
+@Component
+public class SqlStatementTracker extends SimpleJdbcEventListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ThreadLocal<SqlScope> current = new ThreadLocal<>();
+
+    public SqlScope open(String name, int maxStatements, int maxRepeats) {
+        SqlScope scope = new SqlScope(this, current.get(), name, maxStatements, maxRepeats);
+        current.set(scope);
+        return scope;
+    }
+
+    void close(SqlScope scope) {
+        if (current.get() == scope) {
+            if (scope.getParent() == null) {
+                current.remove();
+            } else {
+                current.set(scope.getParent());
+            }
+        }
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlScope scope = current.get();
+        if (scope == null) {
+            return;
+        }
+        String shape = shape(statementInformation.getSql());
+        // 바깥 scope(요청)도 안쪽 scope(메서드 단위 측정)의 SQL을 함께 센다
+        for (; scope != null; scope = scope.getParent()) {
+            scope.record(shape);
+        }
+    }
+
+    /**
+     * 리터럴과 IN 목록 길이를 지워 같은 쿼리가 값만 바꿔 반복된 경우를 하나의 모양으로 묶는다
+     */
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,40 @@
+package com.newest.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy가 감싼 DataSource에서 실행된 SQL 수를 센다.
+ * 스레드별 누적값을 두어 리포지토리 메서드 한 번에 실행된 SQL 수를 앞뒤 차이로 구할 수 있다.
+ * SQL 로그와 달리 문자열을 만들지 않으므로 운영에서 켜 두어도 된다.
+ */
+@Component
+public class StatementCounter extends SimpleJdbcEventListener {
+
+    private final ThreadLocal<long[]> perThread = ThreadLocal.withInitial(() -> new long[1]);
+    private final Counter total;
+
+    public StatementCounter(MeterRegistry registry) {
+        this.total = Counter.builder("querydsl.jdbc.statements")
+                .description("실행된 JDBC statement 수 (batch는 1회)")
+                .register(registry);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        perThread.get()[0]++;
+        total.increment();
+    }
+
+    /**
+     * 현재 스레드에서 지금까지 실행된 SQL 수
+     */
+    public long current() {
+        return perThread.get()[0];
+    }
+}
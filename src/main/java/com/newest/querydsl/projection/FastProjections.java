@@ -0,0 +1,257 @@
+package com.newest.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean/fields/constructor와 같은 방식으로 쓰지만, row마다 리플렉션을 호출하지 않는다.
+ * DTO 타입과 프로퍼티 조합별로 LambdaMetafactory/MethodHandle 기반 매퍼를 한 번만 만들어 재사용한다.
+ */
+public final class FastProjections {
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final Map<MapperKey, Function<Object[], ?>> mappers = new ConcurrentHashMap<>();
+
+    private FastProjections() {
+    }
+
+    /**
+     * 기본 생성자로 만들고 setter로 값을 채운다. (Projections.bean)
+     */
+    public static <T> MappedProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        List<String> names = propertyNames(exprs);
+        return new MappedProjection<>(type, exprs,
+                mapper(new MapperKey(type, "bean", names), () -> beanMapper(type, names)));
+    }
+
+    /**
+     * 기본 생성자로 만들고 필드에 직접 값을 넣는다. (Projections.fields)
+     */
+    public static <T> MappedProjection<T> fields(Class<? extends T> type, Expression<?>... exprs) {
+        List<String> names = propertyNames(exprs);
+        return new MappedProjection<>(type, exprs,
+                mapper(new MapperKey(type, "fields", names), () -> fieldMapper(type, names)));
+    }
+
+    /**
+     * 인자 타입이 맞는 생성자를 호출한다. (Projections.constructor)
+     */
+    public static <T> MappedProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        List<Class<?>> argTypes = Arrays.stream(exprs).<Class<?>>map(Expression::getType).toList();
+        List<String> names = argTypes.stream().map(Class::getName).toList();
+        return new MappedProjection<>(type, exprs,
+                mapper(new MapperKey(type, "constructor", names), () -> constructorMapper(type, argTypes)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<Object[], T> mapper(MapperKey key, Supplier<Function<Object[], T>> factory) {
+        return (Function<Object[], T>) mappers.computeIfAbsent(key, k -> factory.get());
+    }
+
+    private static <T> Function<Object[], T> beanMapper(Class<? extends T> type, List<String> names) {
+        Supplier<T> creator = noArgsCreator(type);
+        List<BiConsumer<Object, Object>> setters = new ArrayList<>(names.size());
+        for (String name : names) {
+            setters.add(setter(type, name));
+        }
+        return args -> {
+            T bean = creator.get();
+            for (int i = 0; i < args.length; i++) {
+                // Projections.bean과 마찬가지로 null은 건너뛰어 primitive 프로퍼티의 기본값을 유지한다
+                if (args[i] != null) {
+                    setters.get(i).accept(bean, args[i]);
+                }
+            }
+            return bean;
+        };
+    }
+
+    private static <T> Function<Object[], T> fieldMapper(Class<? extends T> type, List<String> names) {
+        Supplier<T> creator = noArgsCreator(type);
+        MethodHandle[] fieldSetters = new MethodHandle[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            fieldSetters[i] = fieldSetter(type, names.get(i));
+        }
+        return args -> {
+            T bean = creator.get();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] != null) {
+                    try {
+                        fieldSetters[i].invokeExact(bean, args[i]);
+                    } catch (Throwable e) {
+                        throw new ExpressionException(e.getMessage(), e);
+                    }
+                }
+            }
+            return bean;
+        };
+    }
+
+    private static <T> Function<Object[], T> constructorMapper(Class<? extends T> type, List<Class<?>> argTypes) {
+        Constructor<?> constructor = findConstructor(type, argTypes);
+        MethodHandle handle;
+        try {
+            handle = privateLookup(type).unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(argTypes.size()))
+                    .asSpreader(Object[].class, argTypes.size());
+        } catch (IllegalAccessException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+        return args -> {
+            try {
+                @SuppressWarnings("unchecked")
+                T instance = (T) (Object) handle.invokeExact(args);
+                return instance;
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> noArgsCreator(Class<? extends T> type) {
+        try {
+            Constructor<? extends T> constructor = type.getDeclaredConstructor();
+            if (isPublic(type, constructor.getModifiers())) {
+                MethodHandle handle = lookup.unreflectConstructor(constructor);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        handle,
+                        MethodType.methodType(type));
+                return (Supplier<T>) site.getTarget().invokeExact();
+            }
+            MethodHandle handle = privateLookup(type).unreflectConstructor(constructor)
+                    .asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (T) handle.invokeExact();
+                } catch (Throwable e) {
+                    throw new ExpressionException(e.getMessage(), e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new ExpressionException("기본 생성자를 사용할 수 없습니다: " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> type, String name) {
+        Method method = findSetter(type, name);
+        try {
+            if (isPublic(type, method.getModifiers())) {
+                MethodHandle handle = lookup.unreflect(method);
+                Class<?> parameterType = method.getParameterTypes()[0];
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, type, MethodType.methodType(parameterType).wrap().returnType()));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            }
+            MethodHandle handle = privateLookup(type).unreflect(method)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw new ExpressionException(e.getMessage(), e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new ExpressionException("setter를 사용할 수 없습니다: " + type.getName() + "." + name, e);
+        }
+    }
+
+    private static MethodHandle fieldSetter(Class<?> type, String name) {
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(name);
+                return privateLookup(current).unreflectSetter(field)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (NoSuchFieldException e) {
+                // 상위 클래스에서 다시 찾는다
+            } catch (IllegalAccessException e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        }
+        throw new ExpressionException("필드를 찾을 수 없습니다: " + type.getName() + "." + name);
+    }
+
+    private static Method findSetter(Class<?> type, String name) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(setterName) && method.getParameterCount() == 1) {
+                return method;
+            }
+        }
+        throw new ExpressionException("setter를 찾을 수 없습니다: " + type.getName() + "." + setterName);
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, List<Class<?>> argTypes) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != argTypes.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameterTypes.length && matches; i++) {
+                matches = wrap(parameterTypes[i]).isAssignableFrom(wrap(argTypes.get(i)));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new ExpressionException("인자 타입에 맞는 생성자가 없습니다: " + type.getName() + argTypes);
+    }
+
+    private static List<String> propertyNames(Expression<?>... exprs) {
+        List<String> names = new ArrayList<>(exprs.length);
+        for (Expression<?> expr : exprs) {
+            if (expr instanceof Path<?> path) {
+                names.add(path.getMetadata().getName());
+            } else if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+                names.add(((Path<?>) operation.getArg(1)).getMetadata().getName());
+            } else {
+                throw new IllegalArgumentException("프로퍼티 이름을 알 수 없는 표현식입니다. as()로 별칭을 지정하세요: " + expr);
+            }
+        }
+        return names;
+    }
+
+    private static boolean isPublic(Class<?> type, int modifiers) {
+        return Modifier.isPublic(type.getModifiers()) && Modifier.isPublic(modifiers);
+    }
+
+    private static MethodHandles.Lookup privateLookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, lookup);
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private record MapperKey(Class<?> type, String style, List<String> names) {
+    }
+}
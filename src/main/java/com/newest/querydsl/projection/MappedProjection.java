@@ -0,0 +1,59 @@
+package com.newest.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * FastProjections가 만든 매퍼로 row를 DTO로 바꾸는 projection.
+ */
+public class MappedProjection<T> extends FactoryExpressionBase<T> {
+
+    private final List<Expression<?>> args;
+    private final Function<Object[], T> mapper;
+
+    MappedProjection(Class<? extends T> type, Expression<?>[] args, Function<Object[], T> mapper) {
+        super(type);
+        this.args = List.of(args);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... args) {
+        return mapper.apply(args);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    /**
+     * QBean/ConstructorExpression처럼 대상 타입까지 비교한다.
+     * 매퍼는 FastProjections가 (타입, 방식, 프로퍼티)마다 하나만 만들어 재사용하므로 같은 매퍼면 같은 매핑 방식이다.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        return obj instanceof MappedProjection<?> other
+                && getType().equals(other.getType())
+                && args.equals(other.args)
+                && mapper == other.mapper;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getType(), args);
+    }
+}
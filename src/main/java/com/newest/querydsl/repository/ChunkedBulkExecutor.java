@@ -0,0 +1,146 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.entity.BulkJobCheckpoint;
+import com.newest.querydsl.event.EntityChangeEventPublisher;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.dml.DMLClause;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.EntityPathBase;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Querydsl update/delete를 id 범위 청크로 나눠 청크마다 커밋한다.
+ * 한 문장으로 전체 테이블을 잠그는 대신 청크 크기만큼만 락과 undo를 잡고, 진행 상황은 BulkJobCheckpoint에 남긴다.
+ *
+ * <pre>
+ * executor.execute("age-plus", member, member.id, member.age.lt(28),
+ *         chunk -> queryFactory.update(member).set(member.age, member.age.add(1)).where(chunk));
+ * </pre>
+ * 같은 jobId로 다시 호출하면 마지막으로 커밋된 청크 다음부터 이어서 실행한다.
+ * 같은 jobId가 이미 실행 중이면 IllegalStateException으로 거절한다. 다른 인스턴스에서 실행 중인 경우는
+ * 청크마다 checkpoint row를 잠그고 lastId가 그대로인지 확인해서 막는다.
+ * 이미 트랜잭션 안에서 호출하면 그 트랜잭션에 참여하므로 청크 단위 커밋은 되지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChunkedBulkExecutor {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityChangeEventPublisher changeEventPublisher;
+    private final MemberQueryProperties properties;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public Result execute(String jobId, EntityPathBase<?> entity, NumberPath<Long> id, Predicate where,
+                          Function<Predicate, ? extends DMLClause<?>> statement) {
+        if (!running.add(jobId)) {
+            throw new IllegalStateException("bulk job already running: " + jobId);
+        }
+        try {
+            return run(jobId, entity, id, where, statement);
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    private Result run(String jobId, EntityPathBase<?> entity, NumberPath<Long> id, Predicate where,
+                       Function<Predicate, ? extends DMLClause<?>> statement) {
+        MemberQueryProperties.BulkUpdate config = properties.getBulkUpdate();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        BulkJobCheckpoint checkpoint = transactionTemplate.execute(status -> checkpoint(jobId));
+        if (checkpoint.isCompleted()) {
+            return new Result(jobId, checkpoint.getProcessedRows(), checkpoint.getCompletedChunks(), true);
+        }
+        boolean resumed = checkpoint.getLastId() != null;
+
+        // 작업 도중 새로 추가되는 row는 대상에서 제외하도록 시작 시점의 최대 id까지만 처리한다
+        Tuple bounds = queryFactory.select(id.min(), id.max())
+                .from(entity)
+                .where(where, checkpoint.getLastId() != null ? id.gt(checkpoint.getLastId()) : null)
+                .fetchOne();
+        Long start = bounds != null ? bounds.get(id.min()) : null;
+        Long maxId = bounds != null ? bounds.get(id.max()) : null;
+        Long lastId = checkpoint.getLastId();
+        long chunkSize = config.getInitialChunkSize();
+        long targetNanos = config.getTargetChunkLatency().toNanos();
+
+        while (start != null && start <= maxId) {
+            Long expectedLastId = lastId;
+            long lower = start;
+            long upper = Math.min(start + chunkSize - 1, maxId);
+            Predicate chunk = ExpressionUtils.allOf(where, id.between(lower, upper));
+
+            long began = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> {
+                // 청크를 실행하기 전에 checkpoint row를 잠가 같은 작업의 청크가 동시에 커밋되지 않게 한다
+                BulkJobCheckpoint current = em.find(BulkJobCheckpoint.class, jobId, LockModeType.PESSIMISTIC_WRITE);
+                if (!Objects.equals(current.getLastId(), expectedLastId)) {
+                    throw new IllegalStateException("bulk job advanced concurrently: " + jobId);
+                }
+                long rows = statement.apply(chunk).execute();
+                current.advance(upper, rows);
+                em.flush();
+                // 벌크 연산 후 영속성 컨텍스트의 엔티티는 DB와 달라졌으므로 비운다
+                em.clear();
+                changeEventPublisher.publishBulkChange(entity.getType());
+            });
+            lastId = upper;
+            chunkSize = adapt(chunkSize, System.nanoTime() - began, targetNanos, config);
+            start = nextId(entity, id, where, upper);
+        }
+
+        BulkJobCheckpoint completed = transactionTemplate.execute(status -> {
+            BulkJobCheckpoint current = em.find(BulkJobCheckpoint.class, jobId);
+            current.complete();
+            return current;
+        });
+        log.info("chunked bulk job completed: {}", completed);
+        return new Result(jobId, completed.getProcessedRows(), completed.getCompletedChunks(), resumed);
+    }
+
+    private BulkJobCheckpoint checkpoint(String jobId) {
+        BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, jobId);
+        if (checkpoint == null) {
+            checkpoint = new BulkJobCheckpoint(jobId);
+            em.persist(checkpoint);
+        }
+        return checkpoint;
+    }
+
+    private Long nextId(EntityPathBase<?> entity, NumberPath<Long> id, Predicate where, Long after) {
+        // id 사이 빈 구간을 건너뛰어 대상 row가 없는 청크를 만들지 않는다
+        return queryFactory.select(id.min())
+                .from(entity)
+                .where(where, after != null ? id.gt(after) : null)
+                .fetchOne();
+    }
+
+    private long adapt(long chunkSize, long elapsedNanos, long targetNanos, MemberQueryProperties.BulkUpdate config) {
+        // 한 번에 두 배 이상 늘리거나 절반 이하로 줄이지 않아 일시적인 지연에 과하게 반응하지 않게 한다
+        double ratio = (double) targetNanos / Math.max(elapsedNanos, 1);
+        double factor = Math.max(0.5, Math.min(2.0, ratio));
+        long next = Math.round(chunkSize * factor);
+        return Math.max(config.getMinChunkSize(), Math.min(config.getMaxChunkSize(), next));
+    }
+
+    public record Result(String jobId, long processedRows, int chunks, boolean resumed) {
+    }
+}
@@ -1,13 +1,21 @@
 package com.newest.querydsl.repository;
 
+import com.newest.querydsl.dto.CursorPage;
+import com.newest.querydsl.dto.MemberCursor;
 import com.newest.querydsl.dto.MemberSearchCondition;
 import com.newest.querydsl.dto.MemberTeamDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface CustomMemberRepository {
     List<MemberTeamDto> search(MemberSearchCondition condition);
+    Map<MemberSearchCondition, List<MemberTeamDto>> searchAll(List<MemberSearchCondition> conditions);
+    Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition);
+    Stream<MemberTeamDto> streamSearchByIdRange(MemberSearchCondition condition, long fromId, long toId);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor after, Pageable pageable);
 }
@@ -0,0 +1,9 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.TeamRosterDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface CustomTeamRepository {
+    Page<TeamRosterDto> findRosters(Pageable pageable);
+}
@@ -0,0 +1,169 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.entity.Member;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 동시에 들어온 findById 요청을 모아 `member.id in (...)` 한 번으로 조회한다.
+ * 첫 요청 후 max-wait 동안, 또는 max-batch-size개가 찰 때까지 모으고, 조회 중에 들어온 요청은 다음 배치가 된다.
+ * <p>
+ * 호출한 스레드에 트랜잭션이나 EntityManager가 묶여 있으면 그 영속성 컨텍스트의 동일성/변경 감지를 지켜야 하므로
+ * 모으지 않고 그 자리에서 em.find 한다. 묶여 있지 않은 호출은 원래도 detached 엔티티를 받으므로 배치로 보내도 의미가 같다.
+ * 같은 id를 동시에 요청한 호출자들은 같은 detached 인스턴스를 받는다.
+ * open-in-view(기본값)가 켜져 있으면 웹 요청에는 EntityManager가 묶여 있으므로, 모이는 것은 요청 밖의 호출(배치, 비동기 작업)이다.
+ */
+@Slf4j
+@Component
+public class MemberBatchLoader {
+
+    private final EntityManager em;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MemberQueryProperties.BatchLoader config;
+    private final DistributionSummary batchSize;
+    private final Timer waitTime;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+
+    public MemberBatchLoader(EntityManager em, EntityManagerFactory entityManagerFactory, JPAQueryFactory queryFactory,
+                             PlatformTransactionManager transactionManager, MemberQueryProperties properties,
+                             MeterRegistry registry) {
+        this.em = em;
+        this.entityManagerFactory = entityManagerFactory;
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.config = properties.getBatchLoader();
+        this.batchSize = DistributionSummary.builder("querydsl.member.loader.batch.size")
+                .description("findById 배치 하나에 모인 요청 수")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.waitTime = Timer.builder("querydsl.member.loader.wait")
+                .description("findById 요청이 큐에 들어가서 결과를 받을 때까지 걸린 시간")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        if (config.isEnabled()) {
+            this.dispatcher = new Thread(this::dispatch, "member-batch-loader");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        } else {
+            this.dispatcher = null;
+        }
+    }
+
+    public Member find(Long id) {
+        if (dispatcher == null || id == null || hasPersistenceContext()) {
+            return readOnlyTransaction.execute(status -> em.find(Member.class, id));
+        }
+        Request request = new Request(id, System.nanoTime());
+        queue.add(request);
+        try {
+            return request.result.get(config.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("findById 배치 조회가 제한 시간 안에 끝나지 않았습니다", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("findById 배치 조회 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private boolean hasPersistenceContext() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.hasResource(entityManagerFactory);
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + config.getMaxWait().toNanos();
+                while (batch.size() < config.getMaxBatchSize()) {
+                    Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                load(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void load(List<Request> batch) {
+        Set<Long> ids = new LinkedHashSet<>();
+        batch.forEach(request -> ids.add(request.id));
+        batchSize.record(batch.size());
+        try {
+            List<Member> members = readOnlyTransaction.execute(status -> queryFactory
+                    .selectFrom(member)
+                    .where(member.id.in(ids))
+                    .fetch());
+            Map<Long, Member> byId = new HashMap<>();
+            members.forEach(found -> byId.put(found.getId(), found));
+            for (Request request : batch) {
+                waitTime.record(System.nanoTime() - request.enqueuedNanos, TimeUnit.NANOSECONDS);
+                request.result.complete(byId.get(request.id));
+            }
+        } catch (RuntimeException e) {
+            log.warn("member batch load failed, ids={}", ids.size(), e);
+            batch.forEach(request -> request.result.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    private static final class Request {
+        private final Long id;
+        private final long enqueuedNanos;
+        private final CompletableFuture<Member> result = new CompletableFuture<>();
+
+        private Request(Long id, long enqueuedNanos) {
+            this.id = id;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
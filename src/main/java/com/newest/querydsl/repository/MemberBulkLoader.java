@@ -0,0 +1,88 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 회원을 대량으로 저장한다. chunk-size 마다 flush(JDBC 배치 insert) 후 영속성 컨텍스트를 비우고 커밋하므로
+ * 저장할 회원 수와 관계없이 메모리 사용량이 일정하다.
+ * chunk마다 영속성 컨텍스트를 비우므로 호출한 쪽의 트랜잭션 안에서는 쓸 수 없다 (IllegalStateException).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberBulkLoader {
+
+    private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+    private final MemberQueryProperties properties;
+
+    public Result load(Stream<Member> members) {
+        // 참여하면 chunk 단위로 커밋되지 않고, em.clear()가 호출한 쪽의 영속성 컨텍스트까지 비운다
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("MemberBulkLoader.load는 트랜잭션 밖에서 호출해야 합니다");
+        }
+        int chunkSize = properties.getBulkLoad().getChunkSize();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Iterator<Member> iterator = members.iterator();
+
+        long started = System.nanoTime();
+        long rows = 0;
+        while (iterator.hasNext()) {
+            Integer persisted = transactionTemplate.execute(status -> persistChunk(iterator, chunkSize));
+            rows += persisted != null ? persisted : 0;
+        }
+
+        Result result = new Result(rows, Duration.ofNanos(System.nanoTime() - started));
+        log.info("member bulk load: rows={}, elapsed={}ms, rows/sec={}",
+                result.rows(), result.elapsed().toMillis(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    private int persistChunk(Iterator<Member> iterator, int chunkSize) {
+        Set<Team> teams = Collections.newSetFromMap(new IdentityHashMap<>());
+        int count = 0;
+        while (count < chunkSize && iterator.hasNext()) {
+            Member member = iterator.next();
+            em.persist(member);
+            if (member.getTeam() != null) {
+                teams.add(member.getTeam());
+            }
+            count++;
+        }
+        em.flush();
+        em.clear();
+        // Member 생성자(changeTeam)가 채운 team.members 역방향 참조는 DB에 반영되지 않으므로
+        // 비워서 이미 저장한 회원들이 메모리에 계속 남지 않게 한다
+        for (Team team : teams) {
+            if (Hibernate.isInitialized(team)) {
+                team.getMembers().clear();
+            }
+        }
+        return count;
+    }
+
+    public record Result(long rows, Duration elapsed) {
+
+        public double rowsPerSecond() {
+            long nanos = Math.max(elapsed.toNanos(), 1);
+            return rows * 1_000_000_000d / nanos;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.event.BulkChangedEvent;
+import com.newest.querydsl.event.DataVersion;
+import com.newest.querydsl.event.MemberChangedEvent;
+import com.newest.querydsl.event.MemberSnapshot;
+import com.newest.querydsl.event.TeamChangedEvent;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.springframework.util.StringUtils.hasText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * search()용 메모리 컬럼 저장소(read model).
+ * member를 id/age/team/username 컬럼 배열로 두고, 팀별 bitmap, 나이 정렬 인덱스, username 인덱스의
+ * bitmap 연산으로 MemberSearchCondition을 평가한다. 시작 시 적재하고 커밋 이벤트로 동기화하며,
+ * 벌크 변경이나 적용할 수 없는 변경이 오면 다음 조회 때 DB에서 다시 적재한다.
+ */
+@Component
+public class MemberColumnStore {
+
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // null이면 아직 적재 전이거나 다시 적재해야 하는 상태
+    private Columns columns;
+    private long generation;
+
+    public MemberColumnStore(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+                             MemberQueryProperties properties) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.enabled = properties.getReadModel().isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * read model로 검색한다. 꺼져 있거나, 쓰기 트랜잭션 안이거나, 적재에 실패하면 null을 돌려 JPA 경로를 쓰게 한다.
+     */
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        if (!enabled || !ReadConsistency.sharedReadAllowed()) {
+            return null;
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return columns != null ? columns.search(condition) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            ensureLoaded();
+        }
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        write(columns -> columns.apply(event.before(), event.after()));
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        write(columns -> event.isDelete()
+                ? columns.removeTeam(event.teamId())
+                : columns.putTeam(event.teamId(), event.nameAfter()));
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener(BulkChangedEvent.class)
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            columns = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Change change) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            generation++;
+            if (columns != null && !change.applyTo(columns)) {
+                columns = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        for (int attempt = 0; attempt < MAX_RELOAD_ATTEMPTS; attempt++) {
+            long startGeneration;
+            lock.readLock().lock();
+            try {
+                if (columns != null) {
+                    return;
+                }
+                startGeneration = generation;
+            } finally {
+                lock.readLock().unlock();
+            }
+            Columns loaded = readOnlyTransaction.execute(status -> load());
+            lock.writeLock().lock();
+            try {
+                // 적재 쿼리 도중 커밋된 변경은 반영 여부를 알 수 없으므로 버리고 다시 읽는다
+                if (generation == startGeneration) {
+                    columns = loaded;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Columns load() {
+        Columns loaded = new Columns();
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            loaded.putTeam(row.get(team.id), row.get(team.name));
+        }
+        List<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .orderBy(member.id.asc())
+                .fetch();
+        for (Tuple row : rows) {
+            loaded.append(row.get(member.id), row.get(member.username), row.get(member.age), row.get(member.team.id));
+        }
+        return loaded;
+    }
+
+    private interface Change {
+        boolean applyTo(Columns columns);
+    }
+
+    /**
+     * 컬럼 배열과 보조 인덱스. 삭제는 live bitmap에서 지우는 tombstone 방식이고, 절반 이상 지워지면 압축한다.
+     */
+    static class Columns {
+        private static final int NO_TEAM = -1;
+
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private int[] teamCodes = new int[1024];
+        private String[] usernames = new String[1024];
+        private int size;
+        private int deleted;
+        private final BitSet live = new BitSet();
+        private final Map<Long, Integer> rowById = new HashMap<>();
+
+        // 팀 사전: code -> id/이름, 이름 -> code 목록
+        private final List<Long> teamIds = new ArrayList<>();
+        private final List<String> teamNames = new ArrayList<>();
+        private final Map<Long, Integer> teamCodeById = new HashMap<>();
+        private final Map<String, List<Integer>> teamCodesByName = new HashMap<>();
+
+        private final List<BitSet> rowsByTeam = new ArrayList<>();
+        private final TreeMap<Integer, BitSet> rowsByAge = new TreeMap<>();
+        private final Map<String, BitSet> rowsByUsername = new HashMap<>();
+
+        boolean putTeam(Long teamId, String name) {
+            Integer code = teamCodeById.get(teamId);
+            if (code == null) {
+                code = teamIds.size();
+                teamIds.add(teamId);
+                teamNames.add(name);
+                rowsByTeam.add(new BitSet());
+                teamCodeById.put(teamId, code);
+            } else {
+                unindexTeamName(code);
+                teamNames.set(code, name);
+            }
+            teamCodesByName.computeIfAbsent(name, n -> new ArrayList<>()).add(code);
+            return true;
+        }
+
+        boolean removeTeam(Long teamId) {
+            Integer code = teamCodeById.get(teamId);
+            if (code == null) {
+                return true;
+            }
+            if (!rowsByTeam.get(code).isEmpty()) {
+                // 소속 member가 남은 팀 삭제는 이벤트만으로 정합성을 맞출 수 없다
+                return false;
+            }
+            unindexTeamName(code);
+            teamCodeById.remove(teamId);
+            return true;
+        }
+
+        boolean apply(MemberSnapshot before, MemberSnapshot after) {
+            if (before != null) {
+                Integer row = rowById.get(before.id());
+                if (row == null) {
+                    return false;
+                }
+                delete(row);
+            }
+            if (after != null && !append(after.id(), after.username(), after.age(), after.teamId())) {
+                return false;
+            }
+            if (deleted > 1024 && deleted > size / 2) {
+                compact();
+            }
+            return true;
+        }
+
+        boolean append(Long id, String username, int age, Long teamId) {
+            int teamCode = NO_TEAM;
+            if (teamId != null) {
+                Integer code = teamCodeById.get(teamId);
+                if (code == null) {
+                    return false;
+                }
+                teamCode = code;
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamCodes = Arrays.copyOf(teamCodes, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+            }
+            int row = size++;
+            ids[row] = id;
+            ages[row] = age;
+            teamCodes[row] = teamCode;
+            usernames[row] = username != null ? username.intern() : null;
+            live.set(row);
+            rowById.put(id, row);
+            if (teamCode != NO_TEAM) {
+                rowsByTeam.get(teamCode).set(row);
+            }
+            rowsByAge.computeIfAbsent(age, a -> new BitSet()).set(row);
+            if (username != null) {
+                rowsByUsername.computeIfAbsent(usernames[row], u -> new BitSet()).set(row);
+            }
+            return true;
+        }
+
+        List<MemberTeamDto> search(MemberSearchCondition condition) {
+            BitSet rows = (BitSet) live.clone();
+            if (hasText(condition.getUsername())) {
+                BitSet byUsername = rowsByUsername.get(condition.getUsername());
+                if (byUsername == null) {
+                    return new ArrayList<>();
+                }
+                rows.and(byUsername);
+            }
+            if (hasText(condition.getTeamName())) {
+                BitSet byTeam = new BitSet();
+                for (int code : teamCodesByName.getOrDefault(condition.getTeamName(), List.of())) {
+                    byTeam.or(rowsByTeam.get(code));
+                }
+                rows.and(byTeam);
+            }
+            if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+                int from = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+                int to = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+                if (from > to) {
+                    return new ArrayList<>();
+                }
+                BitSet byAge = new BitSet();
+                NavigableMap<Integer, BitSet> range = rowsByAge.subMap(from, true, to, true);
+                range.values().forEach(byAge::or);
+                rows.and(byAge);
+            }
+
+            String startsWith = hasText(condition.getUsernameStartsWith()) ? condition.getUsernameStartsWith() : null;
+            String contains = hasText(condition.getUsernameContains()) ? condition.getUsernameContains() : null;
+            List<MemberTeamDto> result = new ArrayList<>(rows.cardinality());
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                String username = usernames[row];
+                if ((startsWith != null && (username == null || !username.startsWith(startsWith)))
+                        || (contains != null && (username == null || !username.contains(contains)))) {
+                    continue;
+                }
+                int teamCode = teamCodes[row];
+                result.add(new MemberTeamDto(ids[row], username, ages[row],
+                        teamCode == NO_TEAM ? null : teamIds.get(teamCode),
+                        teamCode == NO_TEAM ? null : teamNames.get(teamCode)));
+            }
+            return result;
+        }
+
+        private void delete(int row) {
+            live.clear(row);
+            rowById.remove(ids[row]);
+            if (teamCodes[row] != NO_TEAM) {
+                rowsByTeam.get(teamCodes[row]).clear(row);
+            }
+            BitSet byAge = rowsByAge.get(ages[row]);
+            byAge.clear(row);
+            if (byAge.isEmpty()) {
+                rowsByAge.remove(ages[row]);
+            }
+            if (usernames[row] != null) {
+                BitSet byUsername = rowsByUsername.get(usernames[row]);
+                byUsername.clear(row);
+                if (byUsername.isEmpty()) {
+                    rowsByUsername.remove(usernames[row]);
+                }
+            }
+            deleted++;
+        }
+
+        private void unindexTeamName(int code) {
+            List<Integer> codes = teamCodesByName.get(teamNames.get(code));
+            if (codes != null) {
+                codes.remove(Integer.valueOf(code));
+                if (codes.isEmpty()) {
+                    teamCodesByName.remove(teamNames.get(code));
+                }
+            }
+        }
+
+        /**
+         * 살아 있는 row만 앞으로 모아 배열과 bitmap을 다시 만든다. 팀 사전은 그대로 둔다.
+         */
+        private void compact() {
+            long[] oldIds = ids;
+            int[] oldAges = ages;
+            int[] oldTeamCodes = teamCodes;
+            String[] oldUsernames = usernames;
+            BitSet oldLive = (BitSet) live.clone();
+
+            int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, size - deleted)) << 1);
+            ids = new long[capacity];
+            ages = new int[capacity];
+            teamCodes = new int[capacity];
+            usernames = new String[capacity];
+            size = 0;
+            deleted = 0;
+            live.clear();
+            rowById.clear();
+            rowsByTeam.forEach(BitSet::clear);
+            rowsByAge.clear();
+            rowsByUsername.clear();
+            for (int row = oldLive.nextSetBit(0); row >= 0; row = oldLive.nextSetBit(row + 1)) {
+                int teamCode = oldTeamCodes[row];
+                append(oldIds[row], oldUsernames[row], oldAges[row], teamCode == NO_TEAM ? null : teamIds.get(teamCode));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.cache.BoundedCache;
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.event.BulkChangedEvent;
+import com.newest.querydsl.event.DataVersion;
+import com.newest.querydsl.event.MemberChangedEvent;
+import com.newest.querydsl.event.TeamChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 검색 조건별 전체 건수를 짧은 시간 동안 보관한다.
+ * 페이지 이동마다 같은 조건의 count 쿼리가 다시 실행되는 것을 막기 위한 용도이며, Member/Team 변경이 커밋되면 비운다.
+ */
+@Component
+public class MemberCountCache {
+
+    private final BoundedCache<MemberSearchCondition, Long> counts;
+    private final boolean enabled;
+
+    public MemberCountCache(MemberQueryProperties properties) {
+        MemberQueryProperties.CountCache config = properties.getCountCache();
+        this.counts = new BoundedCache<>(config.getMaxSize(), config.getTtl());
+        this.enabled = !config.getTtl().isZero();
+    }
+
+    public long get(MemberSearchCondition condition, LongSupplier countQuery) {
+        if (!enabled || !ReadConsistency.sharedReadAllowed()) {
+            return countQuery.getAsLong();
+        }
+        return counts.get(condition.normalize(), countQuery::getAsLong);
+    }
+
+    public Long getIfPresent(MemberSearchCondition condition) {
+        if (!enabled || !ReadConsistency.sharedReadAllowed()) {
+            return null;
+        }
+        return counts.getIfPresent(condition.normalize());
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener({MemberChangedEvent.class, TeamChangedEvent.class, BulkChangedEvent.class})
+    public void clear() {
+        counts.invalidateAll();
+    }
+
+    public BoundedCache<MemberSearchCondition, Long> getCache() {
+        return counts;
+    }
+}
@@ -1,10 +1,12 @@
 package com.newest.querydsl.repository;
 
+import com.newest.querydsl.config.MemberQueryProperties;
 import com.newest.querydsl.dto.MemberSearchCondition;
 import com.newest.querydsl.dto.MemberTeamDto;
 import com.newest.querydsl.dto.QMemberTeamDto;
 import com.newest.querydsl.entity.Member;
 import com.newest.querydsl.entity.QMember;
+import com.newest.querydsl.event.EntityChangeEventPublisher;
 import static com.newest.querydsl.entity.QMember.*;
 import static com.newest.querydsl.entity.QTeam.team;
 import com.querydsl.core.BooleanBuilder;
@@ -12,45 +14,61 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.util.StringUtils;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import static org.springframework.util.StringUtils.hasText;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberJpaRepository {
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberQueryProperties properties;
+    private final MemberSearchCache searchCache;
+    private final MemberSearchTemplates searchTemplates;
+    private final MemberColumnStore columnStore;
+    private final EntityChangeEventPublisher changeEventPublisher;
+    private final MemberBatchLoader batchLoader;
 
     public void save(Member member) {
         em.persist(member);
     }
 
+    // 트랜잭션 밖의 호출을 배치로 모을 수 있어야 하므로 @Transactional 대신 로더가 읽기 전용 트랜잭션을 연다
     public Optional<Member> findById(Long id) {
-        return Optional.ofNullable(em.find(Member.class, id));
+        return Optional.ofNullable(batchLoader.find(id));
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll_Querydsl() {
         return queryFactory
                 .selectFrom(member)
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUsername_Querydsl(String username) {
         return queryFactory
                 .selectFrom(member)
@@ -58,6 +76,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
         BooleanBuilder builder = new BooleanBuilder();
         if (hasText(condition.getUsername())) {
@@ -72,6 +91,12 @@ public class MemberJpaRepository {
         if (condition.getAgeLoe() != null) {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
+        if (hasText(condition.getUsernameStartsWith())) {
+            builder.and(member.username.startsWith(condition.getUsernameStartsWith()));
+        }
+        if (hasText(condition.getUsernameContains())) {
+            builder.and(member.username.contains(condition.getUsernameContains()));
+        }
 
         return queryFactory
                 .select(new QMemberTeamDto(
@@ -87,7 +112,34 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<MemberTeamDto> fromReadModel = columnStore.search(condition);
+        if (fromReadModel != null) {
+            return fromReadModel;
+        }
+        return searchCache.search(condition, () -> searchTemplates.search(condition));
+    }
+
+    /**
+     * queryFactory.update(member) 벌크 연산. 영속성 컨텍스트를 거치지 않으므로 실행 후 비우고,
+     * 엔티티 이벤트가 남지 않는 대신 커밋 후 BulkChangedEvent를 발행해 캐시를 무효화한다.
+     */
+    @Transactional
+    public long bulkUpdate(Predicate where, Consumer<JPAUpdateClause> assignments) {
+        JPAUpdateClause update = queryFactory.update(member).where(where);
+        assignments.accept(update);
+        em.flush();
+        long count = update.execute();
+        em.clear();
+        changeEventPublisher.publishBulkChange(Member.class);
+        return count;
+    }
+
+    /**
+     * search와 같은 조건을 커서 기반으로 읽는다. 트랜잭션 안에서 소비하고 반드시 close 해야 한다.
+     */
+    public Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -102,9 +154,13 @@ public class MemberJpaRepository {
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernameStartsWith(condition.getUsernameStartsWith()),
+                        usernameContains(condition.getUsernameContains())
                 )
-                .fetch();
+                .setHint(HibernateHints.HINT_FETCH_SIZE, properties.getStream().getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
     }
 
     private BooleanExpression usernameEq(String username) {
@@ -122,4 +178,12 @@ public class MemberJpaRepository {
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
+
+    private BooleanExpression usernameStartsWith(String prefix) {
+        return hasText(prefix) ? member.username.startsWith(prefix) : null;
+    }
+
+    private BooleanExpression usernameContains(String infix) {
+        return hasText(infix) ? member.username.contains(infix) : null;
+    }
 }
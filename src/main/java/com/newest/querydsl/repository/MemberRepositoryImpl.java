@@ -1,29 +1,59 @@
 package com.newest.querydsl.repository;
 
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.CursorPage;
+import com.newest.querydsl.dto.MemberCursor;
 import com.newest.querydsl.dto.MemberSearchCondition;
 import com.newest.querydsl.dto.MemberTeamDto;
 import com.newest.querydsl.dto.QMemberTeamDto;
 import com.newest.querydsl.entity.Member;
 import static com.newest.querydsl.entity.QMember.member;
 import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import static org.springframework.util.StringUtils.hasText;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public class MemberRepositoryImpl extends QuerydslRepositorySupport implements CustomMemberRepository {
-    public MemberRepositoryImpl() {
+    private final MemberCountCache countCache;
+    private final MemberSearchCache searchCache;
+    private final ParallelCountExecutor parallelCountExecutor;
+    private final UsernameNgramIndex usernameIndex;
+    private final MemberQueryProperties properties;
+
+    public MemberRepositoryImpl(MemberCountCache countCache, MemberSearchCache searchCache,
+                                ParallelCountExecutor parallelCountExecutor, UsernameNgramIndex usernameIndex,
+                                MemberQueryProperties properties) {
         super(Member.class);
+        this.countCache = countCache;
+        this.searchCache = searchCache;
+        this.parallelCountExecutor = parallelCountExecutor;
+        this.usernameIndex = usernameIndex;
+        this.properties = properties;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
         return from(member)
                 .leftJoin(member.team, team)
@@ -31,7 +61,73 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements C
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernameMatches(condition)
+                )
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        member.team.id.as("teamId"),
+                        member.team.name.as("teamName")
+                ))
+                .fetch();
+    }
+
+    /**
+     * 여러 검색 조건을 한 번에 조회한다. 결과는 입력 조건을 키로 돌려준다.
+     * username/teamName 값만 다르고 나머지 조건이 같은 것끼리 묶어 IN 목록 하나의 SQL로 조회한 뒤,
+     * 각 row를 (username, teamName)으로 해당 조건들에 다시 나눠 담는다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<MemberSearchCondition, List<MemberTeamDto>> searchAll(List<MemberSearchCondition> conditions) {
+        Map<MemberSearchCondition, List<MemberTeamDto>> byNormalized = new HashMap<>();
+        Map<MemberSearchCondition, List<MemberSearchCondition>> groups = new LinkedHashMap<>();
+        for (MemberSearchCondition condition : conditions) {
+            MemberSearchCondition normalized = condition.normalize();
+            if (byNormalized.putIfAbsent(normalized, new ArrayList<>()) == null) {
+                groups.computeIfAbsent(groupKey(normalized), key -> new ArrayList<>()).add(normalized);
+            }
+        }
+
+        int batchSize = properties.getSearchAll().getBatchSize();
+        groups.forEach((key, group) -> {
+            for (int from = 0; from < group.size(); from += batchSize) {
+                searchBatch(key, group.subList(from, Math.min(from + batchSize, group.size())), byNormalized);
+            }
+        });
+
+        Map<MemberSearchCondition, List<MemberTeamDto>> result = new LinkedHashMap<>();
+        for (MemberSearchCondition condition : conditions) {
+            result.put(condition, byNormalized.get(condition.normalize()));
+        }
+        return result;
+    }
+
+    private void searchBatch(MemberSearchCondition key, List<MemberSearchCondition> batch,
+                             Map<MemberSearchCondition, List<MemberTeamDto>> results) {
+        boolean byUsername = key.getUsername() != null;
+        boolean byTeamName = key.getTeamName() != null;
+        Set<String> usernames = new HashSet<>();
+        Set<String> teamNames = new HashSet<>();
+        // (username, teamName) -> 그 값을 가진 조건들. 나머지 조건은 그룹 안에서 모두 같다
+        Map<List<String>, List<MemberSearchCondition>> routes = new HashMap<>();
+        for (MemberSearchCondition condition : batch) {
+            usernames.add(condition.getUsername());
+            teamNames.add(condition.getTeamName());
+            routes.computeIfAbsent(Arrays.asList(condition.getUsername(), condition.getTeamName()),
+                    k -> new ArrayList<>()).add(condition);
+        }
+
+        List<MemberTeamDto> rows = from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        byUsername ? member.username.in(usernames) : null,
+                        byTeamName ? team.name.in(teamNames) : null,
+                        ageGoe(key.getAgeGoe()),
+                        ageLoe(key.getAgeLoe()),
+                        usernameMatches(key)
                 )
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -41,36 +137,177 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements C
                         member.team.name.as("teamName")
                 ))
                 .fetch();
+
+        for (MemberTeamDto row : rows) {
+            // username IN x teamName IN 은 조건에 없는 조합도 가져오므로 정확히 일치하는 조건에만 담는다
+            List<MemberSearchCondition> targets = routes.get(Arrays.asList(
+                    byUsername ? row.getUsername() : null,
+                    byTeamName ? row.getTeamName() : null));
+            if (targets != null) {
+                targets.forEach(condition -> results.get(condition).add(row));
+            }
+        }
     }
 
+    /**
+     * username/teamName은 값 대신 유무만 남긴 그룹 키. 나머지 조건 값이 같아야 같은 SQL로 묶을 수 있다.
+     */
+    private static MemberSearchCondition groupKey(MemberSearchCondition normalized) {
+        MemberSearchCondition key = new MemberSearchCondition();
+        key.setUsername(normalized.getUsername() != null ? "" : null);
+        key.setTeamName(normalized.getTeamName() != null ? "" : null);
+        key.setAgeGoe(normalized.getAgeGoe());
+        key.setAgeLoe(normalized.getAgeLoe());
+        key.setUsernameStartsWith(normalized.getUsernameStartsWith());
+        key.setUsernameContains(normalized.getUsernameContains());
+        return key;
+    }
 
+    /**
+     * 결과를 메모리에 모으지 않고 커서로 한 row씩 읽는다.
+     * 반환된 Stream은 트랜잭션 안에서 소비하고 반드시 close 해야 한다.
+     */
     @Override
-    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        JPQLQuery<MemberTeamDto> jpaQuery = from(member)
+    public Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition) {
+        return streamQuery(condition, null).stream();
+    }
+
+    /**
+     * streamSearch를 member.id 구간 [fromId, toId)로 나눈 것. id 순으로 읽으므로 구간마다 PK 범위 스캔이 된다.
+     */
+    @Override
+    public Stream<MemberTeamDto> streamSearchByIdRange(MemberSearchCondition condition, long fromId, long toId) {
+        return streamQuery(condition, member.id.goe(fromId).and(member.id.lt(toId)))
+                .orderBy(member.id.asc())
+                .stream();
+    }
+
+    private JPAQuery<MemberTeamDto> streamQuery(MemberSearchCondition condition, BooleanExpression idRange) {
+        // 힌트 설정을 위해 JPQLQuery 대신 JPAQuery로 직접 생성한다
+        return new JPAQuery<>(getEntityManager())
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        member.team.id.as("teamId"),
+                        member.team.name.as("teamName")
+                ))
+                .from(member)
                 .leftJoin(member.team, team)
                 .where(
+                        idRange,
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernameMatches(condition)
                 )
+                .setHint(HibernateHints.HINT_FETCH_SIZE, properties.getStream().getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchCache.searchPage(condition, pageable, () -> fetchPage(condition, pageable));
+    }
+
+    private Page<MemberTeamDto> fetchPage(MemberSearchCondition condition, Pageable pageable) {
+        MemberQueryProperties.Page config = properties.getPage();
+        long deadline = System.nanoTime() + config.getTimeout().toNanos();
+        ParallelCountExecutor.PendingCount parallelCount = startParallelCount(condition);
+
+        JPAQuery<MemberTeamDto> jpaQuery = new JPAQuery<>(getEntityManager())
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
                         member.age,
                         member.team.id.as("teamId"),
                         member.team.name.as("teamName")
-                ));
-        JPQLQuery<MemberTeamDto> result = getQuerydsl().applyPagination(pageable, jpaQuery);
-        List<MemberTeamDto> contents = result.fetch();
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        usernameMatches(condition)
+                )
+                .setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, config.getTimeout().toMillis());
+        getQuerydsl().applyPagination(pageable, jpaQuery);
+
+        List<MemberTeamDto> contents;
+        try {
+            contents = jpaQuery.fetch();
+        } catch (RuntimeException e) {
+            if (parallelCount != null) {
+                parallelCount.cancel();
+            }
+            throw e;
+        }
+
+        if (parallelCount == null) {
+            return PageableExecutionUtils.getPage(contents, pageable,
+                    () -> countCache.get(condition, () -> count(condition)));
+        }
+        Page<MemberTeamDto> page = PageableExecutionUtils.getPage(contents, pageable,
+                () -> parallelCountExecutor.await(parallelCount, deadline));
+        // 마지막 페이지처럼 count가 필요 없었던 경우 결과를 기다리지 않는다
+        parallelCount.cancel();
+        return page;
+//        return new PageImpl<>(results, pageable, totalCount);
+    }
+
+    private ParallelCountExecutor.PendingCount startParallelCount(MemberSearchCondition condition) {
+        // 쓰기 트랜잭션 안에서는 다른 커넥션이 아직 커밋되지 않은 row를 볼 수 없으므로 순차 실행한다
+        if (!properties.getPage().isParallelCount() || !ReadConsistency.sharedReadAllowed()
+                || countCache.getIfPresent(condition) != null) {
+            return null;
+        }
+        return parallelCountExecutor.submit(() -> countCache.get(condition, () -> count(condition)));
+    }
+
+    private long count(MemberSearchCondition condition) {
+        // 전체 DTO projection 대신 count만 조회하고, 팀 이름 조건이 없으면 team 조인도 생략한다
+        JPAQuery<Long> countQuery = new JPAQuery<>(getEntityManager())
+                .select(member.count())
+                .from(member);
+        if (hasText(condition.getTeamName())) {
+            countQuery.join(member.team, team);
+        }
+        Long total = countQuery
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        usernameMatches(condition)
+                )
+                .setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, properties.getPage().getTimeout().toMillis())
+                .fetchOne();
+        return total != null ? total : 0L;
+    }
 
-        JPQLQuery<MemberTeamDto> countQuery = from(member)
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, MemberCursor after, Pageable pageable) {
+        Sort.Order order = keysetOrder(pageable.getSort());
+        if (after != null && !after.matches(order)) {
+            throw new IllegalArgumentException("커서의 정렬 조건이 요청과 다릅니다: " + order);
+        }
+        int size = pageable.getPageSize();
+
+        // offset 대신 마지막 row 이후부터 seek 하므로 페이지 깊이와 무관하게 인덱스 범위 스캔으로 끝난다
+        List<MemberTeamDto> rows = from(member)
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernameMatches(condition),
+                        seek(order, after)
                 )
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -78,9 +315,53 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements C
                         member.age,
                         member.team.id.as("teamId"),
                         member.team.name.as("teamName")
-                ));
-        return PageableExecutionUtils.getPage(contents, pageable, countQuery::fetchCount);
-//        return new PageImpl<>(results, pageable, totalCount);
+                ))
+                .orderBy(keysetOrderBy(order))
+                .limit(size + 1)
+                .fetch();
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<MemberTeamDto> contents = new ArrayList<>(rows.subList(0, size));
+        String nextCursor = MemberCursor.of(order, contents.get(size - 1)).encode();
+        return new CursorPage<>(contents, size, nextCursor);
+    }
+
+    private Sort.Order keysetOrder(Sort sort) {
+        // 커서에는 정렬 키 하나만 담기므로 나머지 정렬을 조용히 무시하지 않고 거절한다
+        if (sort.stream().count() > 1) {
+            throw new IllegalArgumentException("keyset 페이징은 정렬 조건을 하나만 지원합니다: " + sort);
+        }
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        if (!"id".equals(order.getProperty()) && !"age".equals(order.getProperty())) {
+            throw new IllegalArgumentException("keyset 페이징은 id, age 정렬만 지원합니다: " + order.getProperty());
+        }
+        return order;
+    }
+
+    private OrderSpecifier<?>[] keysetOrderBy(Sort.Order order) {
+        // 정렬 키가 같은 row 사이의 순서를 고정하기 위해 항상 member.id를 마지막 정렬 키로 둔다
+        if ("id".equals(order.getProperty())) {
+            return new OrderSpecifier<?>[]{order.isAscending() ? member.id.asc() : member.id.desc()};
+        }
+        return order.isAscending()
+                ? new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()}
+                : new OrderSpecifier<?>[]{member.age.desc(), member.id.desc()};
+    }
+
+    private BooleanExpression seek(Sort.Order order, MemberCursor after) {
+        if (after == null) {
+            return null;
+        }
+        if ("id".equals(order.getProperty())) {
+            return order.isAscending() ? member.id.gt(after.getMemberId()) : member.id.lt(after.getMemberId());
+        }
+        return order.isAscending()
+                ? member.age.gt(after.getAge())
+                        .or(member.age.eq(after.getAge()).and(member.id.gt(after.getMemberId())))
+                : member.age.lt(after.getAge())
+                        .or(member.age.eq(after.getAge()).and(member.id.lt(after.getMemberId())));
     }
 
     private BooleanExpression usernameEq(String username) {
@@ -88,7 +369,7 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements C
     }
 
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? member.team.name.eq(teamName) : null;
+        return hasText(teamName) ? team.name.eq(teamName) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -98,6 +379,24 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements C
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
+
+    /**
+     * username 접두어/부분 문자열 조건. trigram 인덱스가 답할 수 있으면 id IN, 아니면 LIKE 조건이 된다.
+     */
+    private BooleanExpression usernameMatches(MemberSearchCondition condition) {
+        String startsWith = condition.getUsernameStartsWith();
+        String contains = condition.getUsernameContains();
+        if (!hasText(startsWith) && !hasText(contains)) {
+            return null;
+        }
+        Set<Long> memberIds = usernameIndex.match(startsWith, contains);
+        if (memberIds != null) {
+            // 빈 목록이면 Querydsl이 항상 거짓인 조건으로 바꾼다
+            return member.id.in(memberIds);
+        }
+        BooleanExpression like = hasText(startsWith) ? member.username.startsWith(startsWith) : null;
+        return hasText(contains) ? member.username.contains(contains).and(like) : like;
+    }
 }
 
 
@@ -0,0 +1,85 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.cache.BoundedCache;
+import com.newest.querydsl.cache.SingleFlight;
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.event.BulkChangedEvent;
+import com.newest.querydsl.event.DataVersion;
+import com.newest.querydsl.event.MemberChangedEvent;
+import com.newest.querydsl.event.TeamChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 반복되는 검색 조건의 결과를 보관한다. Member/Team 변경이나 벌크 연산이 커밋되면 전부 비운다.
+ * 캐시된 결과는 여러 요청이 공유하므로 호출한 쪽에서 수정하면 안 된다.
+ * 캐시에 없는 같은 조건이 동시에 들어오면 single-flight로 한 번만 조회하고 결과를 나눠 준다.
+ * 합류한 호출은 자기보다 조금 먼저 시작된 조회 결과를 받는 셈이므로, 공유 읽기가 허용된 경우에만 적용한다.
+ */
+@Component
+public class MemberSearchCache {
+
+    private final BoundedCache<Key, Object> results;
+    private final SingleFlight<Key, Object> inFlight;
+    private final boolean enabled;
+    private final boolean singleFlight;
+
+    public MemberSearchCache(MemberQueryProperties properties) {
+        MemberQueryProperties.SearchCache config = properties.getSearchCache();
+        this.results = new BoundedCache<>(config.getMaxSize(), config.getTtl());
+        this.enabled = config.isEnabled();
+        this.inFlight = new SingleFlight<>(properties.getSingleFlight().getStripes());
+        this.singleFlight = properties.getSingleFlight().isEnabled();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<MemberTeamDto> search(MemberSearchCondition condition, Supplier<List<MemberTeamDto>> loader) {
+        if (!ReadConsistency.sharedReadAllowed()) {
+            return loader.get();
+        }
+        Key key = new Key("search", condition.normalize(), Pageable.unpaged());
+        return (List<MemberTeamDto>) load(key, () -> Collections.unmodifiableList(loader.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable,
+                                          Supplier<Page<MemberTeamDto>> loader) {
+        if (!ReadConsistency.sharedReadAllowed()) {
+            return loader.get();
+        }
+        Key key = new Key("searchPage", condition.normalize(), pageable);
+        return (Page<MemberTeamDto>) load(key, loader::get);
+    }
+
+    private Object load(Key key, Supplier<Object> loader) {
+        Supplier<Object> deduplicated = singleFlight ? () -> inFlight.execute(key, loader) : loader;
+        return enabled ? results.get(key, deduplicated) : deduplicated.get();
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener({MemberChangedEvent.class, TeamChangedEvent.class, BulkChangedEvent.class})
+    public void clear() {
+        results.invalidateAll();
+        inFlight.invalidateAll();
+    }
+
+    public BoundedCache<?, ?> getCache() {
+        return results;
+    }
+
+    public SingleFlight<?, ?> getSingleFlight() {
+        return inFlight;
+    }
+
+    private record Key(String method, MemberSearchCondition condition, Pageable pageable) {
+    }
+}
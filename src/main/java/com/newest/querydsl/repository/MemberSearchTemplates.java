@@ -0,0 +1,187 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.dto.QMemberTeamDto;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Component;
+import static org.springframework.util.StringUtils.hasText;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * search의 동적 where 절은 조건의 유무 조합(shape)뿐이므로 shape별 JPQL을 한 번만 만들어 재사용한다.
+ * 값은 Param으로 바인딩하므로 JPQL 문자열이 같고, Hibernate도 같은 쿼리 플랜을 캐시에서 꺼내 쓴다.
+ * username 접두어/부분 문자열 조건은 trigram 인덱스가 답하면 id IN 조건으로, 아니면 LIKE로 바뀐다.
+ */
+@Component
+public class MemberSearchTemplates {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int USERNAME_STARTS_WITH = 1 << 4;
+    private static final int USERNAME_CONTAINS = 1 << 5;
+    private static final int MEMBER_IDS = 1 << 6;
+    // JPQLTemplates의 LIKE escape 문자
+    private static final char ESCAPE = '!';
+
+    private static final Param<String> usernameParam = new Param<>(String.class, "username");
+    private static final Param<String> teamNameParam = new Param<>(String.class, "teamName");
+    private static final Param<Integer> ageGoeParam = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> ageLoeParam = new Param<>(Integer.class, "ageLoe");
+    private static final Param<String> usernameStartsWithParam = new Param<>(String.class, "usernameStartsWith");
+    private static final Param<String> usernameContainsParam = new Param<>(String.class, "usernameContains");
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final Param<Collection<Long>> memberIdsParam = new Param(Collection.class, "memberIds");
+
+    private static final QMemberTeamDto projection = new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            member.team.id.as("teamId"),
+            member.team.name.as("teamName")
+    );
+
+    private final EntityManager em;
+    private final UsernameNgramIndex usernameIndex;
+    private final AtomicReferenceArray<Template> templates = new AtomicReferenceArray<>(MEMBER_IDS << 1);
+
+    public MemberSearchTemplates(EntityManager em, UsernameNgramIndex usernameIndex) {
+        this.em = em;
+        this.usernameIndex = usernameIndex;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        Set<Long> memberIds = usernameIndex.match(condition.getUsernameStartsWith(), condition.getUsernameContains());
+        if (memberIds != null && memberIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Template template = template(shapeOf(condition, memberIds != null));
+
+        Query query = em.createQuery(template.jpql());
+        List<Object> constants = template.constants();
+        for (int i = 0; i < constants.size(); i++) {
+            query.setParameter(i + 1, bind(constants.get(i), condition, memberIds));
+        }
+
+        List<?> rows = query.getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(projection.newInstance((Object[]) row));
+        }
+        return result;
+    }
+
+    private Template template(int shape) {
+        Template template = templates.get(shape);
+        if (template == null) {
+            // 동시에 여러 번 컴파일되어도 결과가 같으므로 마지막 값이 남아도 상관없다
+            template = compile(shape);
+            templates.set(shape, template);
+        }
+        return template;
+    }
+
+    private Template compile(int shape) {
+        JPAQuery<MemberTeamDto> query = new JPAQuery<>(em)
+                .select(projection)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        (shape & USERNAME) != 0 ? member.username.eq(usernameParam) : null,
+                        (shape & TEAM_NAME) != 0 ? team.name.eq(teamNameParam) : null,
+                        (shape & AGE_GOE) != 0 ? member.age.goe(ageGoeParam) : null,
+                        (shape & AGE_LOE) != 0 ? member.age.loe(ageLoeParam) : null,
+                        (shape & USERNAME_STARTS_WITH) != 0 ? member.username.startsWith(usernameStartsWithParam) : null,
+                        (shape & USERNAME_CONTAINS) != 0 ? member.username.contains(usernameContainsParam) : null,
+                        (shape & MEMBER_IDS) != 0 ? Expressions.booleanTemplate("{0} in ({1})", member.id, memberIdsParam) : null
+                );
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Template(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    private Object bind(Object constant, MemberSearchCondition condition, Set<Long> memberIds) {
+        if (constant == usernameParam) {
+            return condition.getUsername();
+        }
+        if (constant == teamNameParam) {
+            return condition.getTeamName();
+        }
+        if (constant == ageGoeParam) {
+            return condition.getAgeGoe();
+        }
+        if (constant == ageLoeParam) {
+            return condition.getAgeLoe();
+        }
+        if (constant == usernameStartsWithParam) {
+            return escapeLike(condition.getUsernameStartsWith());
+        }
+        if (constant == usernameContainsParam) {
+            return escapeLike(condition.getUsernameContains());
+        }
+        if (constant == memberIdsParam) {
+            return memberIds;
+        }
+        return constant;
+    }
+
+    /**
+     * Param 값은 Querydsl이 이스케이프하지 않으므로 사용자가 입력한 %, _ 를 직접 이스케이프한다
+     */
+    private static String escapeLike(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                sb.append(ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    static int shapeOf(MemberSearchCondition condition, boolean indexed) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        if (indexed) {
+            shape |= MEMBER_IDS;
+        } else {
+            if (hasText(condition.getUsernameStartsWith())) {
+                shape |= USERNAME_STARTS_WITH;
+            }
+            if (hasText(condition.getUsernameContains())) {
+                shape |= USERNAME_CONTAINS;
+            }
+        }
+        return shape;
+    }
+
+    private record Template(String jpql, List<Object> constants) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이지 count 쿼리를 요청 스레드와 다른 커넥션(읽기 전용 트랜잭션)에서 실행한다.
+ * 스레드 수와 대기열 크기가 제한되어 있고, 가득 차면 null을 돌려 호출한 쪽이 순차 실행하게 한다.
+ * 대기열에 들어갔지만 content 조회가 끝날 때까지 시작하지 못한 count는 취소하고 호출한 스레드에서 실행한다.
+ * 제한 시간은 실제로 실행 중인 count에만 적용된다.
+ */
+@Slf4j
+@Component
+public class ParallelCountExecutor {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ParallelCountExecutor(MemberQueryProperties properties, PlatformTransactionManager transactionManager) {
+        MemberQueryProperties.Page config = properties.getPage();
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getCountPoolSize());
+        executor.setMaxPoolSize(config.getCountPoolSize());
+        executor.setQueueCapacity(config.getCountQueueCapacity());
+        executor.setThreadNamePrefix("page-count-");
+        executor.initialize();
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public PendingCount submit(LongSupplier countQuery) {
+        PendingCount count = new PendingCount(countQuery);
+        try {
+            count.future = executor.submit(() -> count.claim()
+                    ? readOnlyTransaction.execute(status -> countQuery.getAsLong())
+                    : null);
+            return count;
+        } catch (TaskRejectedException e) {
+            log.debug("count executor saturated, falling back to sequential count");
+            return null;
+        }
+    }
+
+    /**
+     * count 결과를 기다린다. 아직 시작하지 않았으면 작업을 취소하고 호출한 스레드에서 바로 실행한다.
+     */
+    public long await(PendingCount count, long deadlineNanos) {
+        if (count.claim()) {
+            count.future.cancel(false);
+            log.debug("count task still queued, counting inline");
+            return count.countQuery.getAsLong();
+        }
+        try {
+            return count.future.get(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            count.future.cancel(false);
+            throw new QueryTimeoutException("count 쿼리가 제한 시간 안에 끝나지 않았습니다", e);
+        } catch (InterruptedException e) {
+            count.future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("count 쿼리 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 제출한 count 작업. 작업 스레드와 기다리는 쪽 중 먼저 claim 한 쪽이 count를 실행한다.
+     */
+    public static final class PendingCount {
+        private final LongSupplier countQuery;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<Long> future;
+
+        private PendingCount(LongSupplier countQuery) {
+            this.countQuery = countQuery;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * 결과가 필요 없어졌을 때 호출한다. 아직 시작하지 않은 작업은 실행되지 않는다.
+         */
+        public void cancel() {
+            claim();
+            future.cancel(false);
+        }
+    }
+}
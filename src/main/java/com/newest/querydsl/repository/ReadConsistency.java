@@ -0,0 +1,18 @@
+package com.newest.querydsl.repository;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class ReadConsistency {
+
+    private ReadConsistency() {
+    }
+
+    /**
+     * 공유 캐시나 별도 커넥션에서 읽어도 되는지 여부.
+     * 쓰기 트랜잭션 안의 조회는 아직 커밋되지 않은 자기 변경을 봐야 하므로 false 이다.
+     */
+    public static boolean sharedReadAllowed() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
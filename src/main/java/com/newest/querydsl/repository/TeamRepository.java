@@ -0,0 +1,15 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.entity.Team;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, CustomTeamRepository {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Team> findByName(String name);
+}
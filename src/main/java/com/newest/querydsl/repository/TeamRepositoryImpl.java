@@ -0,0 +1,67 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.QTeamMemberDto;
+import com.newest.querydsl.dto.TeamMemberDto;
+import com.newest.querydsl.dto.TeamRosterDto;
+import com.newest.querydsl.entity.Team;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class TeamRepositoryImpl extends QuerydslRepositorySupport implements CustomTeamRepository {
+
+    public TeamRepositoryImpl() {
+        super(Team.class);
+    }
+
+    /**
+     * team + members 페이지 조회.
+     * fetchJoin + 페이징은 컬렉션 조인 때문에 메모리에서 페이징되므로, team id 페이지를 먼저 구하고
+     * 그 id들의 member를 IN 쿼리 한 번으로 가져온다. 페이지 크기와 무관하게 SQL은 최대 3개(content, members, count)다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TeamRosterDto> findRosters(Pageable pageable) {
+        // team은 자주 바뀌지 않으므로 team 페이지와 count는 쿼리 캐시를 쓴다 (team 테이블이 바뀌면 Hibernate가 무효화)
+        JPAQuery<TeamRosterDto> teamQuery = new JPAQuery<>(getEntityManager())
+                .select(Projections.constructor(TeamRosterDto.class, team.id, team.name))
+                .from(team)
+                .setHint(HibernateHints.HINT_CACHEABLE, true);
+        if (pageable.getSort().isUnsorted()) {
+            // 정렬이 없으면 페이지 경계가 매번 달라질 수 있다
+            teamQuery.orderBy(team.id.asc());
+        }
+        getQuerydsl().applyPagination(pageable, teamQuery);
+        List<TeamRosterDto> rosters = teamQuery.fetch();
+
+        if (!rosters.isEmpty()) {
+            Map<Long, TeamRosterDto> byId = new LinkedHashMap<>();
+            rosters.forEach(roster -> byId.put(roster.getTeamId(), roster));
+
+            List<TeamMemberDto> members = from(member)
+                    .select(new QTeamMemberDto(member.team.id, member.id, member.username, member.age))
+                    .where(member.team.id.in(byId.keySet()))
+                    .orderBy(member.id.asc())
+                    .fetch();
+            members.forEach(m -> byId.get(m.getTeamId()).getMembers().add(m));
+        }
+
+        return PageableExecutionUtils.getPage(rosters, pageable,
+                () -> new JPAQuery<>(getEntityManager()).select(team.count()).from(team)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .fetchOne());
+    }
+}
@@ -0,0 +1,198 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.TeamAgeStatisticsDto;
+import com.newest.querydsl.event.BulkChangedEvent;
+import com.newest.querydsl.event.DataVersion;
+import com.newest.querydsl.event.MemberChangedEvent;
+import com.newest.querydsl.event.MemberSnapshot;
+import com.newest.querydsl.event.TeamChangedEvent;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 팀별 나이 통계(count/sum/avg/min/max)를 메모리에 유지한다.
+ * 커밋된 Member/Team 변경 이벤트로 증분 갱신하므로 조회는 member 수가 아니라 팀 수에 비례한다.
+ * 벌크 변경처럼 어떤 row가 바뀌었는지 모르는 경우에는 다음 조회 때 DB에서 다시 만든다.
+ */
+@Component
+public class TeamStatistics {
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private Map<Long, TeamAges> teams = new HashMap<>();
+    private boolean dirty = true;
+    // 재구성 쿼리가 도는 동안 들어온 변경을 감지하기 위한 값
+    private long generation;
+
+    public TeamStatistics(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 멤버가 한 명 이상인 팀의 통계. 팀 id 순으로 정렬된다.
+     */
+    public List<TeamAgeStatisticsDto> findAll() {
+        // 쓰기 트랜잭션은 아직 커밋되지 않은 자기 변경까지 봐야 하므로 DB에서 직접 계산한다
+        if (!ReadConsistency.sharedReadAllowed()) {
+            return toDto(load());
+        }
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            long startGeneration;
+            synchronized (this) {
+                if (!dirty) {
+                    return toDto(teams);
+                }
+                startGeneration = generation;
+            }
+            Map<Long, TeamAges> rebuilt = readOnlyTransaction.execute(status -> load());
+            synchronized (this) {
+                if (generation == startGeneration) {
+                    teams = rebuilt;
+                    dirty = false;
+                    return toDto(teams);
+                }
+            }
+        }
+        // 변경이 계속 들어오면 캐시하지 않고 이번 결과만 돌려준다
+        return toDto(readOnlyTransaction.execute(status -> load()));
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener
+    public synchronized void onMemberChanged(MemberChangedEvent event) {
+        generation++;
+        if (dirty) {
+            return;
+        }
+        if (!remove(event.before()) || !add(event.after())) {
+            dirty = true;
+        }
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener
+    public synchronized void onTeamChanged(TeamChangedEvent event) {
+        generation++;
+        if (dirty) {
+            return;
+        }
+        if (event.isDelete()) {
+            TeamAges removed = teams.remove(event.teamId());
+            if (removed != null && removed.count > 0) {
+                // 멤버가 남아 있는 팀이 지워졌다면 FK 정리 등 알 수 없는 변경이 함께 있었던 것
+                dirty = true;
+            }
+        } else {
+            teams.computeIfAbsent(event.teamId(), id -> new TeamAges()).name = event.nameAfter();
+        }
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener(BulkChangedEvent.class)
+    public synchronized void invalidate() {
+        generation++;
+        dirty = true;
+    }
+
+    private boolean add(MemberSnapshot snapshot) {
+        if (snapshot == null || snapshot.teamId() == null) {
+            return true;
+        }
+        TeamAges ages = teams.get(snapshot.teamId());
+        if (ages == null) {
+            // 아직 모르는 팀이면 이름을 알 수 없으므로 다시 만든다
+            return false;
+        }
+        ages.add(snapshot.age(), 1);
+        return true;
+    }
+
+    private boolean remove(MemberSnapshot snapshot) {
+        if (snapshot == null || snapshot.teamId() == null) {
+            return true;
+        }
+        TeamAges ages = teams.get(snapshot.teamId());
+        return ages != null && ages.remove(snapshot.age());
+    }
+
+    private Map<Long, TeamAges> load() {
+        Map<Long, TeamAges> loaded = new HashMap<>();
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            loaded.computeIfAbsent(row.get(team.id), id -> new TeamAges()).name = row.get(team.name);
+        }
+        // 나이별 인원만 가져오므로 결과 크기는 팀 수 x 서로 다른 나이 수로 제한된다
+        List<Tuple> rows = queryFactory
+                .select(member.team.id, member.age, member.count())
+                .from(member)
+                .where(member.team.isNotNull())
+                .groupBy(member.team.id, member.age)
+                .fetch();
+        for (Tuple row : rows) {
+            TeamAges ages = loaded.get(row.get(member.team.id));
+            if (ages != null) {
+                ages.add(row.get(member.age), row.get(member.count()));
+            }
+        }
+        return loaded;
+    }
+
+    private static List<TeamAgeStatisticsDto> toDto(Map<Long, TeamAges> teams) {
+        List<TeamAgeStatisticsDto> result = new ArrayList<>();
+        new TreeMap<>(teams).forEach((teamId, ages) -> {
+            if (ages.count > 0) {
+                result.add(new TeamAgeStatisticsDto(teamId, ages.name, ages.count, ages.sum,
+                        ages.ages.firstKey(), ages.ages.lastKey()));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 나이 multiset. 삭제 후에도 min/max를 구할 수 있도록 나이별 인원을 정렬된 맵으로 둔다.
+     */
+    private static class TeamAges {
+        private String name;
+        private long count;
+        private long sum;
+        private final TreeMap<Integer, Long> ages = new TreeMap<>();
+
+        void add(int age, long n) {
+            ages.merge(age, n, Long::sum);
+            count += n;
+            sum += (long) age * n;
+        }
+
+        boolean remove(int age) {
+            Long n = ages.get(age);
+            if (n == null) {
+                return false;
+            }
+            if (n == 1) {
+                ages.remove(age);
+            } else {
+                ages.put(age, n - 1);
+            }
+            count--;
+            sum -= age;
+            return true;
+        }
+    }
+}
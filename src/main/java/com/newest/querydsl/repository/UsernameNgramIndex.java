@@ -0,0 +1,197 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.event.BulkChangedEvent;
+import com.newest.querydsl.event.DataVersion;
+import com.newest.querydsl.event.MemberChangedEvent;
+import com.newest.querydsl.event.MemberSnapshot;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.springframework.util.StringUtils.hasText;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * member.username 접두어/부분 문자열 검색용 메모리 trigram 인덱스.
+ * 후보 id를 trigram posting의 교집합으로 좁힌 뒤 실제 username으로 한 번 더 확인하므로 결과는 LIKE와 같다.
+ * 커밋된 Member 변경 이벤트로 갱신하고, 벌크 변경 뒤에는 다음 조회 때 DB에서 다시 만든다.
+ */
+@Component
+public class UsernameNgramIndex {
+
+    private static final int N = 3;
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private Map<String, Set<Long>> postings = new HashMap<>();
+    private Map<Long, String> usernames = new HashMap<>();
+    private boolean dirty = true;
+    private long generation;
+
+    public UsernameNgramIndex(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+                              MemberQueryProperties properties) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.enabled = properties.getUsernameIndex().isEnabled();
+        this.maxCandidates = properties.getUsernameIndex().getMaxCandidates();
+    }
+
+    /**
+     * 두 조건을 모두 만족하는 member id 집합. 인덱스로 답할 수 없으면 null을 돌려 호출한 쪽이 LIKE로 조회하게 한다.
+     * (조건이 없음, 3글자 미만, 쓰기 트랜잭션, 후보가 max-candidates 초과)
+     */
+    public Set<Long> match(String startsWith, String contains) {
+        // LIKE 조건과 같이 공백뿐인 값은 조건이 없는 것으로 본다
+        boolean hasPrefix = hasText(startsWith);
+        boolean hasFragment = hasText(contains);
+        if (!enabled || !(hasPrefix || hasFragment) || !ReadConsistency.sharedReadAllowed()) {
+            return null;
+        }
+        // 더 긴 쪽이 posting 교집합을 더 작게 만들고, 나머지 조건은 아래 확인 단계에서 거른다
+        String probe = !hasFragment || (hasPrefix && startsWith.length() >= contains.length()) ? startsWith : contains;
+        if (probe.length() < N) {
+            return null;
+        }
+        ensureFresh();
+        synchronized (this) {
+            if (dirty) {
+                return null;
+            }
+            Set<Long> candidates = candidates(probe);
+            if (candidates.size() > maxCandidates) {
+                return null;
+            }
+            Set<Long> result = new HashSet<>();
+            for (Long id : candidates) {
+                String username = usernames.get(id);
+                if ((!hasPrefix || username.startsWith(startsWith)) && (!hasFragment || username.contains(contains))) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener
+    public synchronized void onMemberChanged(MemberChangedEvent event) {
+        generation++;
+        if (dirty) {
+            return;
+        }
+        remove(event.before());
+        add(event.after());
+    }
+
+    @Order(DataVersion.DERIVED_STATE_ORDER)
+    @EventListener(BulkChangedEvent.class)
+    public synchronized void invalidate() {
+        generation++;
+        dirty = true;
+    }
+
+    private Set<Long> candidates(String fragment) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(fragment)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void ensureFresh() {
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            long startGeneration;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                startGeneration = generation;
+            }
+            List<Tuple> rows = readOnlyTransaction.execute(status ->
+                    queryFactory.select(member.id, member.username).from(member).fetch());
+            Map<String, Set<Long>> rebuiltPostings = new HashMap<>();
+            Map<Long, String> rebuiltUsernames = new HashMap<>();
+            for (Tuple row : rows) {
+                index(rebuiltPostings, rebuiltUsernames, row.get(member.id), row.get(member.username));
+            }
+            synchronized (this) {
+                // 재구성 쿼리 도중 커밋된 변경이 있으면 반영 여부를 알 수 없으므로 버린다
+                if (generation == startGeneration) {
+                    postings = rebuiltPostings;
+                    usernames = rebuiltUsernames;
+                    dirty = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    private void add(MemberSnapshot snapshot) {
+        if (snapshot != null) {
+            index(postings, usernames, snapshot.id(), snapshot.username());
+        }
+    }
+
+    private void remove(MemberSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        String username = usernames.remove(snapshot.id());
+        if (username == null) {
+            return;
+        }
+        for (String gram : grams(username)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(snapshot.id());
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static void index(Map<String, Set<Long>> postings, Map<Long, String> usernames, Long id, String username) {
+        if (username == null) {
+            return;
+        }
+        usernames.put(id, username);
+        for (String gram : grams(username)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= value.length(); i++) {
+            grams.add(value.substring(i, i + N));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,41 @@
+package com.newest.querydsl.service;
+
+import com.newest.querydsl.dto.ExportJobDto;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 내보내기 작업의 진행 상황. 작업 디렉터리에 JSON으로 저장되며, 구간 하나가 끝날 때마다 다시 쓴다.
+ * 구간 i는 member.id [minId + i * rangeSize, minId + (i + 1) * rangeSize) 이다.
+ */
+@Getter
+@Setter
+public class ExportCheckpoint {
+
+    private String jobId;
+    private MemberSearchCondition condition;
+    private long minId;
+    private long maxId;
+    private long rangeSize;
+    private int totalRanges;
+    private ExportJobDto.State state;
+    private String error;
+    // 끝난 구간 번호 -> 그 구간에서 쓴 row 수
+    private Map<Integer, Long> completed = new TreeMap<>();
+
+    public long fromId(int range) {
+        return minId + range * rangeSize;
+    }
+
+    public long toId(int range) {
+        return Math.min(fromId(range) + rangeSize, maxId + 1);
+    }
+
+    public long completedRows() {
+        return completed.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,225 @@
+package com.newest.querydsl.service;
+
+import com.newest.querydsl.dto.MemberTeamDto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MemberTeamDto를 컬럼 단위 바이너리로 쓴다. row를 block-rows개씩 모아 block 하나로 내보내므로
+ * 커서에서 읽으면서 바로 응답으로 흘려보낼 수 있다.
+ * <pre>
+ * stream  = "MCOL" version(1) block* 0
+ * block   = rows(varint) newTeams(varint) team* memberId* username* age* teamRef*
+ * team    = teamId(varlong) name(string)   -- 스트림 전체에 걸친 사전에 순서대로 추가된다
+ * memberId = 앞 row와의 차이(zigzag varlong), username = string, age = zigzag varint
+ * teamRef = 0이면 팀 없음, 아니면 사전 위치 + 1 (varint)
+ * string  = UTF-8 길이 + 1(varint) + bytes, null이면 0
+ * </pre>
+ */
+public class MemberColumnarEncoder implements Closeable {
+
+    public static final String MEDIA_TYPE = "application/x-member-columnar";
+
+    private static final byte[] MAGIC = {'M', 'C', 'O', 'L'};
+    private static final int VERSION = 1;
+
+    private final OutputStream out;
+    private final int blockRows;
+    private final Map<Long, Integer> teamRefs = new HashMap<>();
+    private final List<MemberTeamDto> newTeams = new ArrayList<>();
+
+    private final long[] memberIds;
+    private final String[] usernames;
+    private final int[] ages;
+    private final int[] teams;
+    private int rows;
+    private long lastMemberId;
+
+    public MemberColumnarEncoder(OutputStream out, int blockRows) throws IOException {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.blockRows = blockRows;
+        this.memberIds = new long[blockRows];
+        this.usernames = new String[blockRows];
+        this.ages = new int[blockRows];
+        this.teams = new int[blockRows];
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    public void write(MemberTeamDto row) throws IOException {
+        memberIds[rows] = row.getMemberId();
+        usernames[rows] = row.getUsername();
+        ages[rows] = row.getAge();
+        teams[rows] = teamRef(row);
+        if (++rows == blockRows) {
+            writeBlock();
+        }
+    }
+
+    private int teamRef(MemberTeamDto row) {
+        if (row.getTeamId() == null) {
+            return 0;
+        }
+        Integer ref = teamRefs.get(row.getTeamId());
+        if (ref == null) {
+            ref = teamRefs.size() + 1;
+            teamRefs.put(row.getTeamId(), ref);
+            newTeams.add(row);
+        }
+        return ref;
+    }
+
+    private void writeBlock() throws IOException {
+        writeVarLong(rows);
+        writeVarLong(newTeams.size());
+        for (MemberTeamDto team : newTeams) {
+            writeVarLong(team.getTeamId());
+            writeString(team.getTeamName());
+        }
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(zigzag(memberIds[i] - lastMemberId));
+            lastMemberId = memberIds[i];
+        }
+        for (int i = 0; i < rows; i++) {
+            writeString(usernames[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(zigzag(ages[i]));
+        }
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(teams[i]);
+        }
+        newTeams.clear();
+        rows = 0;
+        out.flush();
+    }
+
+    /**
+     * 남은 row를 내보내고 끝 표시를 쓴다. 모든 row를 쓴 뒤에만 호출한다.
+     */
+    public void finish() throws IOException {
+        if (rows > 0) {
+            writeBlock();
+        }
+        writeVarLong(0);
+        out.flush();
+    }
+
+    /**
+     * 이미 내보낸 block만 flush 한다. 감싼 스트림은 닫지 않는다.
+     * finish() 전에 닫히면(조회 도중 실패 등) 끝 표시가 없으므로 클라이언트는 잘린 응답을 완전한 결과로 읽지 않는다.
+     */
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * 인코딩한 스트림을 다시 row 목록으로 읽는다. 자바 클라이언트와 테스트용.
+     */
+    public static List<MemberTeamDto> decode(InputStream source) throws IOException {
+        InputStream in = new BufferedInputStream(source);
+        byte[] magic = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC) || in.read() != VERSION) {
+            throw new IOException("member columnar 형식이 아닙니다");
+        }
+        // 끝 표시 전에 스트림이 끝나면 readVarLong이 EOFException을 던진다
+        List<MemberTeamDto> result = new ArrayList<>();
+        List<Long> teamIds = new ArrayList<>();
+        List<String> teamNames = new ArrayList<>();
+        long memberId = 0;
+        int rows;
+        while ((rows = (int) readVarLong(in)) != 0) {
+            int newTeams = (int) readVarLong(in);
+            for (int i = 0; i < newTeams; i++) {
+                teamIds.add(readVarLong(in));
+                teamNames.add(readString(in));
+            }
+            long[] ids = new long[rows];
+            String[] names = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                memberId += unzigzag(readVarLong(in));
+                ids[i] = memberId;
+            }
+            for (int i = 0; i < rows; i++) {
+                names[i] = readString(in);
+            }
+            int[] ages = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                ages[i] = (int) unzigzag(readVarLong(in));
+            }
+            for (int i = 0; i < rows; i++) {
+                int ref = (int) readVarLong(in);
+                result.add(new MemberTeamDto(ids[i], names[i], ages[i],
+                        ref == 0 ? null : teamIds.get(ref - 1),
+                        ref == 0 ? null : teamNames.get(ref - 1)));
+            }
+        }
+        return result;
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes((int) length - 1);
+        if (bytes.length != length - 1) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint가 너무 깁니다");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
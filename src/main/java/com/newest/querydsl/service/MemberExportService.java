@@ -0,0 +1,452 @@
+package com.newest.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.ExportJobDto;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberRepository;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 검색 조건에 맞는 회원 전체를 gzip CSV 파일로 내보내는 백그라운드 작업.
+ * member.id를 range-size 구간으로 나눠 parallelism개 커넥션에서 동시에 스캔하고, 구간마다 part 파일(gzip)을 만든다.
+ * 구간이 끝날 때마다 checkpoint를 남기므로 중단된 작업은 끝나지 않은 구간만 다시 스캔한다.
+ * 모든 구간이 끝나면 헤더와 part 파일들을 순서대로 이어 붙인다. gzip은 여러 member를 이어 붙여도 하나의 gzip 파일이다.
+ * <p>
+ * 임시 파일 이름에는 실행 차수(attempt)를 붙인다. 실패한 실행의 구간 작업이 아직 돌고 있을 때 resume 해도
+ * 두 실행이 같은 임시 파일에 쓰지 않고, 각자 다 쓴 part를 rename으로만 최종 이름에 올린다.
+ */
+@Slf4j
+@Service
+public class MemberExportService {
+
+    private static final String CHECKPOINT = "checkpoint.json";
+    private static final String RESULT = "members.csv.gz";
+    private static final String TMP = ".tmp";
+    private static final String HEADER = "member_id,username,age,team_id,team_name\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern JOB_ID = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}");
+
+    private final MemberRepository memberRepository;
+    private final JPAQueryFactory queryFactory;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MemberQueryProperties.Export config;
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    public MemberExportService(MemberRepository memberRepository, JPAQueryFactory queryFactory, ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager, MemberQueryProperties properties) {
+        this.memberRepository = memberRepository;
+        this.queryFactory = queryFactory;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.config = properties.getExport();
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getParallelism());
+        executor.setMaxPoolSize(config.getParallelism());
+        executor.setThreadNamePrefix("member-export-");
+        executor.initialize();
+    }
+
+    public ExportJobDto start(MemberSearchCondition condition) {
+        Tuple bounds = readOnlyTransaction.execute(status -> queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .fetchOne());
+        Long minId = bounds != null ? bounds.get(member.id.min()) : null;
+        Long maxId = bounds != null ? bounds.get(member.id.max()) : null;
+
+        ExportCheckpoint checkpoint = new ExportCheckpoint();
+        checkpoint.setJobId(UUID.randomUUID().toString());
+        checkpoint.setCondition(condition.normalize());
+        checkpoint.setRangeSize(config.getRangeSize());
+        checkpoint.setState(ExportJobDto.State.RUNNING);
+        if (minId != null) {
+            checkpoint.setMinId(minId);
+            checkpoint.setMaxId(maxId);
+            checkpoint.setTotalRanges((int) ((maxId - minId) / config.getRangeSize() + 1));
+        }
+
+        Job job = new Job(checkpoint, Paths.get(config.getDirectory(), checkpoint.getJobId()));
+        try {
+            Files.createDirectories(job.dir);
+            writeCheckpoint(job);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jobs.put(checkpoint.getJobId(), job);
+        run(job);
+        return job.status();
+    }
+
+    /**
+     * 이 서버에서 실행한 적 없는 작업(재시작 전에 끝난 작업 등)은 디스크의 checkpoint로 답한다.
+     */
+    public Optional<ExportJobDto> status(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job != null) {
+            return Optional.of(job.status());
+        }
+        return readCheckpoint(jobId).map(checkpoint -> toStatus(checkpoint, checkpoint.completedRows()));
+    }
+
+    /**
+     * 완료된 작업의 결과 파일
+     */
+    public Optional<Path> result(String jobId) {
+        return status(jobId)
+                .filter(status -> status.getState() == ExportJobDto.State.COMPLETED)
+                .map(status -> Paths.get(config.getDirectory(), jobId, RESULT))
+                .filter(Files::exists);
+    }
+
+    /**
+     * 실패했거나 중단된 작업을 checkpoint에서 이어서 실행한다. 끝난 구간은 다시 스캔하지 않는다.
+     */
+    public Optional<ExportJobDto> resume(String jobId) {
+        // 작업 id는 디렉터리 이름이 되므로 UUID 형식만 받는다
+        if (!JOB_ID.matcher(jobId).matches()) {
+            return Optional.empty();
+        }
+        Path dir = Paths.get(config.getDirectory(), jobId);
+        Job job;
+        synchronized (jobs) {
+            Job previous = jobs.get(jobId);
+            if (previous != null && previous.isRunning()) {
+                return Optional.of(previous.status());
+            }
+            Optional<ExportCheckpoint> saved = readCheckpoint(jobId);
+            if (saved.isEmpty()) {
+                return Optional.empty();
+            }
+            ExportCheckpoint checkpoint = saved.get();
+            if (checkpoint.getState() == ExportJobDto.State.COMPLETED && Files.exists(dir.resolve(RESULT))) {
+                return Optional.of(jobs.computeIfAbsent(jobId, id -> new Job(checkpoint, dir)).status());
+            }
+            if (previous != null) {
+                // 실패한 실행에서 아직 시작하지 않은 구간은 취소한다. 이미 도는 구간은 자기 임시 파일에만 쓴다
+                previous.cancel();
+            }
+            checkpoint.setState(ExportJobDto.State.RUNNING);
+            checkpoint.setError(null);
+            job = new Job(checkpoint, dir);
+            jobs.put(jobId, job);
+        }
+        run(job);
+        return Optional.of(job.status());
+    }
+
+    private Optional<ExportCheckpoint> readCheckpoint(String jobId) {
+        if (!JOB_ID.matcher(jobId).matches()) {
+            return Optional.empty();
+        }
+        Path file = Paths.get(config.getDirectory(), jobId, CHECKPOINT);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(file.toFile(), ExportCheckpoint.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 서버가 내려가면서 RUNNING으로 남은 작업을 다시 시작한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        Path root = Paths.get(config.getDirectory());
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                Path checkpointFile = dir.resolve(CHECKPOINT);
+                if (!Files.exists(checkpointFile)) {
+                    continue;
+                }
+                ExportCheckpoint checkpoint = objectMapper.readValue(checkpointFile.toFile(), ExportCheckpoint.class);
+                if (checkpoint.getState() == ExportJobDto.State.RUNNING) {
+                    log.info("resuming member export {}: {}/{} ranges done", checkpoint.getJobId(),
+                            checkpoint.getCompleted().size(), checkpoint.getTotalRanges());
+                    resume(checkpoint.getJobId());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("failed to scan export directory {}", root, e);
+        }
+    }
+
+    private void run(Job job) {
+        ExportCheckpoint checkpoint = job.checkpoint;
+        List<Integer> pending = new ArrayList<>();
+        synchronized (job) {
+            // checkpoint에 끝났다고 남았어도 part 파일이 없으면 다시 스캔한다
+            checkpoint.getCompleted().keySet().removeIf(range -> !Files.exists(job.dir.resolve(partName(range))));
+            for (int range = 0; range < checkpoint.getTotalRanges(); range++) {
+                if (!checkpoint.getCompleted().containsKey(range)) {
+                    pending.add(range);
+                }
+            }
+            job.rows.set(checkpoint.completedRows());
+        }
+        if (pending.isEmpty()) {
+            job.track(executor.submit(() -> finish(job)));
+            return;
+        }
+        job.remaining.set(pending.size());
+        for (int range : pending) {
+            job.track(executor.submit(() -> exportRange(job, range)));
+        }
+    }
+
+    private void exportRange(Job job, int range) {
+        // 다른 구간이 실패했으면 남은 구간은 건너뛴다 (resume 때 다시 스캔)
+        if (!job.isRunning()) {
+            return;
+        }
+        try {
+            Long rows = readOnlyTransaction.execute(status -> writePart(job, range));
+            synchronized (job) {
+                // 실패한 실행의 checkpoint로 새 실행의 checkpoint를 덮어쓰지 않는다
+                if (!job.isRunning()) {
+                    return;
+                }
+                job.checkpoint.getCompleted().put(range, rows);
+                writeCheckpoint(job);
+            }
+            if (job.remaining.decrementAndGet() == 0) {
+                finish(job);
+            }
+        } catch (Exception e) {
+            fail(job, e);
+        }
+    }
+
+    private long writePart(Job job, int range) {
+        ExportCheckpoint checkpoint = job.checkpoint;
+        Path part = job.dir.resolve(partName(range));
+        Path tmp = job.tmp(partName(range));
+        long rows = 0;
+        try (Stream<MemberTeamDto> stream = memberRepository.streamSearchByIdRange(
+                     checkpoint.getCondition(), checkpoint.fromId(range), checkpoint.toId(range));
+             FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = csvWriter(channel)) {
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writeRow(writer, iterator.next());
+                rows++;
+                job.rows.incrementAndGet();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            // 다 쓴 part만 최종 이름을 가지므로, 중간에 죽으면 .tmp만 남고 그 구간은 다시 스캔된다
+            Files.move(tmp, part, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private static Writer csvWriter(FileChannel channel) throws IOException {
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void writeRow(Writer writer, MemberTeamDto row) throws IOException {
+        writer.write(Long.toString(row.getMemberId()));
+        writer.write(',');
+        writeField(writer, row.getUsername());
+        writer.write(',');
+        writer.write(Integer.toString(row.getAge()));
+        writer.write(',');
+        if (row.getTeamId() != null) {
+            writer.write(Long.toString(row.getTeamId()));
+        }
+        writer.write(',');
+        writeField(writer, row.getTeamName());
+        writer.write('\n');
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void finish(Job job) {
+        ExportCheckpoint checkpoint = job.checkpoint;
+        Path result = job.dir.resolve(RESULT);
+        Path tmp = job.tmp(RESULT);
+        try {
+            try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                GZIPOutputStream header = new GZIPOutputStream(Channels.newOutputStream(target));
+                header.write(HEADER.getBytes(StandardCharsets.UTF_8));
+                header.finish();
+                for (int range = 0; range < checkpoint.getTotalRanges(); range++) {
+                    try (FileChannel part = FileChannel.open(job.dir.resolve(partName(range)), StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = part.size();
+                        while (position < size) {
+                            position += part.transferTo(position, size - position, target);
+                        }
+                    }
+                }
+                target.force(false);
+            }
+            Files.move(tmp, result, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (job) {
+                checkpoint.setState(ExportJobDto.State.COMPLETED);
+                writeCheckpoint(job);
+            }
+            for (int range = 0; range < checkpoint.getTotalRanges(); range++) {
+                Files.deleteIfExists(job.dir.resolve(partName(range)));
+            }
+            long elapsed = System.nanoTime() - job.startedNanos;
+            log.info("member export {}: rows={}, elapsed={}ms, rows/sec={}", checkpoint.getJobId(), job.rows.get(),
+                    elapsed / 1_000_000, Math.round(job.rows.get() * 1_000_000_000d / Math.max(elapsed, 1)));
+        } catch (Exception e) {
+            fail(job, e);
+        }
+    }
+
+    private void fail(Job job, Exception e) {
+        if (shuttingDown) {
+            // 종료 중 인터럽트로 실패한 구간은 FAILED로 남기지 않는다. RUNNING 그대로 두어 다음 기동 때 이어서 실행한다
+            log.info("member export {} interrupted by shutdown", job.checkpoint.getJobId());
+            return;
+        }
+        log.warn("member export {} failed", job.checkpoint.getJobId(), e);
+        synchronized (job) {
+            if (!job.isRunning()) {
+                return;
+            }
+            job.checkpoint.setState(ExportJobDto.State.FAILED);
+            job.checkpoint.setError(e.getMessage());
+            try {
+                writeCheckpoint(job);
+            } catch (UncheckedIOException ignored) {
+                // checkpoint를 못 남겨도 마지막으로 저장된 상태(RUNNING)에서 다시 이어갈 수 있다
+            }
+        }
+    }
+
+    private void writeCheckpoint(Job job) {
+        Path tmp = job.tmp(CHECKPOINT);
+        try {
+            objectMapper.writeValue(tmp.toFile(), job.checkpoint);
+            Files.move(tmp, job.dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String partName(int range) {
+        return String.format("part-%06d.csv.gz", range);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        executor.shutdown();
+    }
+
+    private static final class Job {
+        private final ExportCheckpoint checkpoint;
+        private final Path dir;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicInteger remaining = new AtomicInteger();
+        private final long startedNanos = System.nanoTime();
+        // 같은 작업을 다시 실행할 때마다 새 Job이 만들어지므로 Job마다 다른 값이다
+        private final String attempt = UUID.randomUUID().toString().substring(0, 8);
+        private final List<Future<?>> tasks = new ArrayList<>();
+
+        private Job(ExportCheckpoint checkpoint, Path dir) {
+            this.checkpoint = checkpoint;
+            this.dir = dir;
+        }
+
+        private synchronized boolean isRunning() {
+            return checkpoint.getState() == ExportJobDto.State.RUNNING;
+        }
+
+        private synchronized ExportJobDto status() {
+            return toStatus(checkpoint, rows.get());
+        }
+
+        private Path tmp(String name) {
+            return dir.resolve(name + "." + attempt + TMP);
+        }
+
+        private synchronized void track(Future<?> task) {
+            tasks.add(task);
+        }
+
+        private synchronized void cancel() {
+            tasks.forEach(task -> task.cancel(false));
+        }
+    }
+
+    private static ExportJobDto toStatus(ExportCheckpoint checkpoint, long rows) {
+        return new ExportJobDto(checkpoint.getJobId(), checkpoint.getState(), checkpoint.getTotalRanges(),
+                checkpoint.getCompleted().size(), rows, checkpoint.getError());
+    }
+}
@@ -0,0 +1,76 @@
+package com.newest.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import com.newest.querydsl.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class MemberStreamService {
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final MemberQueryProperties properties;
+
+    /**
+     * 검색 결과를 한 줄에 하나씩 JSON(NDJSON)으로 쓴다.
+     * 커서를 읽는 동안 트랜잭션(커넥션)을 유지해야 하므로 응답 쓰기까지 이 메서드 안에서 끝낸다.
+     */
+    @Transactional(readOnly = true)
+    public long writeNdjson(MemberSearchCondition condition, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int flushEvery = properties.getStream().getFlushEvery();
+        long rows = 0;
+
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.streamSearch(condition);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 루트 값 사이 기본 구분자(공백) 대신 줄바꿈만 쓴다
+            generator.setRootValueSeparator(null);
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++rows % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 검색 결과를 컬럼 단위 바이너리(MemberColumnarEncoder)로 쓴다. block 하나가 찰 때마다 클라이언트로 flush 된다.
+     */
+    @Transactional(readOnly = true)
+    public long writeColumnar(MemberSearchCondition condition, OutputStream out) throws IOException {
+        long rows = 0;
+        // JSON 응답(search)과 같은 조건 처리(username 인덱스 포함)를 쓰는 MemberRepositoryImpl의 커서
+        try (Stream<MemberTeamDto> stream = memberRepository.streamSearch(condition);
+             MemberColumnarEncoder encoder = new MemberColumnarEncoder(out, properties.getStream().getColumnarBlockRows())) {
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                encoder.write(iterator.next());
+                rows++;
+            }
+            encoder.finish();
+        }
+        return rows;
+    }
+}
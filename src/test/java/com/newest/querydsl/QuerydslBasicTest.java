@@ -7,6 +7,11 @@ import com.newest.querydsl.entity.QMember;
 import static com.newest.querydsl.entity.QMember.member;
 import static com.newest.querydsl.entity.QTeam.team;
 import com.newest.querydsl.entity.Team;
+import com.newest.querydsl.metrics.SqlBudget;
+import com.newest.querydsl.metrics.SqlBudgetExtension;
+import com.newest.querydsl.metrics.SqlScope;
+import com.newest.querydsl.metrics.SqlStatementTracker;
+import com.newest.querydsl.projection.FastProjections;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
@@ -20,6 +25,7 @@ import jakarta.persistence.EntityManagerFactory;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Commit;
@@ -29,12 +35,15 @@ import java.util.List;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(SqlBudgetExtension.class)
 public class QuerydslBasicTest {
 
     @Autowired
     EntityManager em;
     @Autowired
     EntityManagerFactory emf;
+    @Autowired
+    SqlStatementTracker sqlStatementTracker;
     JPAQueryFactory queryFactory;
 
     @BeforeEach
@@ -318,6 +327,34 @@ public class QuerydslBasicTest {
         assertThat(loaded).as("패치 조인 미적용").isTrue();
     }
 
+    @Test
+    @SqlBudget(maxRepeats = Integer.MAX_VALUE) // 일부러 N+1을 일으키므로 테스트 전체 예산에서는 제외
+    public void nPlusOneDetected() {
+        // given
+        em.flush();
+        em.clear();
+
+        // when
+        SqlScope lazy = sqlStatementTracker.open("lazy", 10, 1);
+        try (lazy) {
+            List<Member> members = queryFactory.selectFrom(member).fetch();
+            members.forEach(m -> m.getTeam().getName());
+        }
+        em.clear();
+        SqlScope fetchJoin = sqlStatementTracker.open("fetchJoin", 10, 1);
+        try (fetchJoin) {
+            List<Member> members = queryFactory.selectFrom(member).join(member.team, team).fetchJoin().fetch();
+            members.forEach(m -> m.getTeam().getName());
+        }
+
+        // then
+        assertThat(lazy.getStatements()).isEqualTo(3);
+        assertThat(lazy.repeatedShapes()).hasSize(1);
+        assertThat(lazy.isOverBudget()).isTrue();
+        assertThat(fetchJoin.getStatements()).isEqualTo(1);
+        assertThat(fetchJoin.isOverBudget()).isFalse();
+    }
+
     @Test
     public void subQuery() {
         // given
@@ -477,6 +514,46 @@ public class QuerydslBasicTest {
         }
     }
 
+    @Test
+    public void findDtoByFastProjections() {
+        // given
+        // 리플렉션 대신 미리 만든 LambdaMetafactory/MethodHandle 매퍼로 row를 DTO로 바꾼다
+        List<MemberDto> expected = queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+
+        // when
+        List<MemberDto> byBean = queryFactory
+                .select(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+        List<MemberDto> byField = queryFactory
+                .select(FastProjections.fields(MemberDto.class, member.username.as("username"), member.age))
+                .from(member)
+                .fetch();
+        List<MemberDto> byConstructor = queryFactory
+                .select(FastProjections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch();
+
+        // then
+        assertThat(byBean).containsExactlyElementsOf(expected);
+        assertThat(byField).containsExactlyElementsOf(expected);
+        assertThat(byConstructor).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void fastProjectionsEquality() {
+        // 같은 타입, 같은 방식, 같은 인자일 때만 같은 projection이다
+        assertThat(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .isEqualTo(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .hasSameHashCodeAs(FastProjections.bean(MemberDto.class, member.username, member.age));
+        assertThat(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .isNotEqualTo(FastProjections.fields(MemberDto.class, member.username, member.age))
+                .isNotEqualTo(FastProjections.bean(MemberView.class, member.username, member.age));
+    }
+
     @Test
     public void dynamicQueryBooleanBuilder() {
         // given
@@ -595,5 +672,16 @@ public class QuerydslBasicTest {
         }
     }
 
+    public static class MemberView {
+        private String username;
+        private int age;
 
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
 }
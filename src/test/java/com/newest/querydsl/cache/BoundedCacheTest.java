@@ -0,0 +1,75 @@
+package com.newest.querydsl.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class BoundedCacheTest {
+
+    AtomicLong now = new AtomicLong();
+
+    @Test
+    public void hitAndMiss() {
+        // given
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofSeconds(1), now::get);
+
+        // when
+        cache.get("a", () -> 1);
+        Integer cached = cache.get("a", () -> 2);
+
+        // then
+        assertThat(cached).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        // given
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2, Duration.ofSeconds(1), now::get);
+        cache.get("a", () -> 1);
+        cache.get("b", () -> 2);
+        cache.get("a", () -> 1);
+
+        // when
+        cache.get("c", () -> 3);
+
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.get("a", () -> -1)).isEqualTo(1);
+        assertThat(cache.get("b", () -> -1)).isEqualTo(-1);
+    }
+
+    @Test
+    public void expireAfterTtl() {
+        // given
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofSeconds(1), now::get);
+        cache.get("a", () -> 1);
+
+        // when
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        // then
+        assertThat(cache.get("a", () -> 2)).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateDuringLoadDropsResult() {
+        // given
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofSeconds(1), now::get);
+
+        // when
+        // 로딩 중에 데이터가 바뀌었다면 그 결과는 이미 낡았을 수 있으므로 저장하지 않는다
+        cache.get("a", () -> {
+            cache.invalidateAll();
+            return 1;
+        });
+
+        // then
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,127 @@
+package com.newest.querydsl.config;
+
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 두 개의 H2 메모리 DB를 primary/replica로 두고 라우팅을 확인한다.
+ * 복제는 없으므로 replica에만 넣은 row가 보이는지로 어느 쪽에서 읽었는지 구분한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "querydsl.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "querydsl.datasource.replica.username=sa",
+        "querydsl.datasource.replica.max-lag=10m",
+        "querydsl.datasource.replica.lag-tolerance.[MemberJpaRepository.findByUsername]=1h"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MockMvc mockMvc;
+
+    JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    public void before() {
+        // Hibernate가 primary에 만든 스키마를 replica에 복사한다
+        replica.execute("drop all objects");
+        List<String> ddl = primary.queryForList("script nodata", String.class);
+        ddl.forEach(replica::execute);
+        replica.update("insert into member (member_id, username, age) values (1000000, 'routing-replica-only', 10)");
+    }
+
+    @AfterEach
+    public void after() {
+        primary.update("delete from member where username like 'routing%'");
+    }
+
+    @Test
+    public void readOnlyWithinLagToleranceGoesToReplica() {
+        // when: 허용 lag(1h)이 max-lag(10m)보다 크므로 항상 replica
+        List<Member> result = memberJpaRepository.findByUsername("routing-replica-only");
+
+        // then
+        assertThat(result).extracting("username").containsExactly("routing-replica-only");
+    }
+
+    @Test
+    public void readOnlyWithoutLagToleranceGoesToPrimary() {
+        // when: 기본 허용 lag 0, 시작 직후는 max-lag 안의 쓰기가 있었던 것으로 본다
+        List<Member> result = memberJpaRepository.findByUsername_Querydsl("routing-replica-only");
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void writesAndReadsInWriteTransactionGoToPrimary() {
+        // when
+        List<Member> readInWrite = new TransactionTemplate(transactionManager).execute(status -> {
+            memberJpaRepository.save(new Member("routing-written", 20));
+            return memberJpaRepository.findByUsername("routing-replica-only");
+        });
+
+        // then
+        assertThat(readInWrite).isEmpty();
+        assertThat(primary.queryForObject("select count(*) from member where username = 'routing-written'", Long.class))
+                .isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from member where username = 'routing-written'", Long.class))
+                .isZero();
+    }
+
+    @Test
+    public void mayReadUnreplicatedWrites() {
+        // given
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(1));
+        AtomicLong clock = new AtomicLong();
+        ReplicaRouting routing = new ReplicaRouting(properties, clock::get);
+
+        // when, then: lag을 허용하는 메서드가 없으면 최근 쓰기는 항상 primary에서 읽는다
+        assertThat(routing.mayReadUnreplicatedWrites()).isFalse();
+
+        properties.getLagTolerance().put("MemberJpaRepository.search", Duration.ofMillis(500));
+        assertThat(routing.mayReadUnreplicatedWrites()).isTrue();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(routing.mayReadUnreplicatedWrites()).isFalse();
+        routing.onWriteCommitted();
+        assertThat(routing.mayReadUnreplicatedWrites()).isTrue();
+    }
+
+    @Test
+    public void noEtagWhileReplicaMayLag() throws Exception {
+        // when, then: max-lag(10m) 안이고 lag을 허용한 메서드가 있으므로 새 버전을 붙이지 않는다
+        mockMvc.perform(get("/v1/members").param("username", "routing-replica-only"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
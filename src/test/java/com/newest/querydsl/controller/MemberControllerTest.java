@@ -0,0 +1,150 @@
+package com.newest.querydsl.controller;
+
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.event.DataVersion;
+import com.newest.querydsl.event.MemberChangedEvent;
+import com.newest.querydsl.repository.MemberSearchCache;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 요청은 테스트 트랜잭션 밖에서 처리되므로 커밋된 데이터로 테스트하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    DataVersion dataVersion;
+    @Autowired
+    ChangeProbe probe;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> em.persist(new Member("etag1", 10)));
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status ->
+                queryFactory.delete(member).where(member.username.startsWith("etag")).execute());
+    }
+
+    @Test
+    public void searchMemberV2_notModifiedUntilDataChanges() throws Exception {
+        // given
+        String etag = mockMvc.perform(get("/v2/members").param("username", "etag1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Counter statements = registry.get("querydsl.jdbc.statements").counter();
+        double before = statements.count();
+
+        // when
+        mockMvc.perform(get("/v2/members").param("username", "etag1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        double afterNotModified = statements.count();
+        mockMvc.perform(get("/v2/members").param("username", "etag2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        tx.executeWithoutResult(status -> em.persist(new Member("etag2", 20)));
+        String changed = mockMvc.perform(get("/v2/members").param("username", "etag1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // then: 304는 DB를 거치지 않고, 커밋된 변경 후에는 다른 ETag로 다시 조회한다
+        assertThat(etag).isNotNull();
+        assertThat(afterNotModified - before).isZero();
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    public void searchMemberV2_newEtagNeverPairsWithPreCommitBody() throws Exception {
+        // given: 조회 결과가 검색 캐시에 남아 있고 304로 재검증된다
+        String etag = mockMvc.perform(get("/v2/members").param("username", "etag1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/v2/members").param("username", "etag1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        long versionBefore = dataVersion.current();
+
+        // when
+        tx.executeWithoutResult(status -> queryFactory.selectFrom(member)
+                .where(member.username.eq("etag1")).fetchOne().setAge(11));
+        var response = mockMvc.perform(get("/v2/members").param("username", "etag1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then: 버전이 오르기 전에 캐시가 먼저 비워지므로 새 ETag에는 커밋 후의 본문만 붙는다
+        assertThat(probe.cacheSize.get()).isZero();
+        assertThat(probe.version.get()).isEqualTo(versionBefore);
+        assertThat(dataVersion.current()).isGreaterThan(versionBefore);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(response.getContentAsString()).contains("\"age\":11").doesNotContain("\"age\":10");
+    }
+
+    /**
+     * 파생 상태 정리 리스너와 버전 증가 사이에 실행되어 그 시점의 캐시 크기와 버전을 기록한다.
+     */
+    static class ChangeProbe {
+        final AtomicInteger cacheSize = new AtomicInteger(-1);
+        final AtomicLong version = new AtomicLong(-1);
+        final MemberSearchCache searchCache;
+        final DataVersion dataVersion;
+
+        ChangeProbe(MemberSearchCache searchCache, DataVersion dataVersion) {
+            this.searchCache = searchCache;
+            this.dataVersion = dataVersion;
+        }
+
+        @Order(DataVersion.DERIVED_STATE_ORDER + 1)
+        @EventListener(MemberChangedEvent.class)
+        public void onMemberChanged() {
+            cacheSize.set(searchCache.getCache().size());
+            version.set(dataVersion.current());
+        }
+    }
+
+    @TestConfiguration
+    static class ProbeConfig {
+        @Bean
+        ChangeProbe changeProbe(MemberSearchCache searchCache, DataVersion dataVersion) {
+            return new ChangeProbe(searchCache, dataVersion);
+        }
+    }
+}
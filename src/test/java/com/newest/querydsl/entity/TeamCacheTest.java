@@ -0,0 +1,97 @@
+package com.newest.querydsl.entity;
+
+import static com.newest.querydsl.entity.QTeam.team;
+import com.newest.querydsl.repository.TeamRepository;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 2차 캐시는 영속성 컨텍스트(트랜잭션)를 넘어 공유되므로 테스트 트랜잭션 없이 트랜잭션을 나눠 확인한다.
+ */
+@SpringBootTest
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Statistics statistics;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        teamId = tx.execute(status -> {
+            Team cached = new Team("cacheTeam");
+            em.persist(cached);
+            return cached.getId();
+        });
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> queryFactory.delete(team).where(team.id.eq(teamId)).execute());
+    }
+
+    @Test
+    public void findServedFromSecondLevelCache() {
+        // given
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+        statistics.clear();
+
+        // when
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+        // then
+        assertThat(statistics.getDomainDataRegionStatistics("team").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void bulkUpdateInvalidates() {
+        // given
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+        // when
+        tx.executeWithoutResult(status -> queryFactory.update(team)
+                .set(team.name, "renamed")
+                .where(team.id.eq(teamId))
+                .execute());
+
+        // then
+        String name = tx.execute(status -> em.find(Team.class, teamId).getName());
+        assertThat(name).isEqualTo("renamed");
+    }
+
+    @Test
+    public void queryCache() {
+        // when
+        teamRepository.findByName("cacheTeam");
+        teamRepository.findByName("cacheTeam");
+
+        // then
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+}
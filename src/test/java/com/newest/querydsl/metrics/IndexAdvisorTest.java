@@ -0,0 +1,66 @@
+package com.newest.querydsl.metrics;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@SpringBootTest(properties = "querydsl.member.index-advisor.enabled=true")
+@Transactional
+class IndexAdvisorTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+        em.clear();
+        indexAdvisor.reset();
+    }
+
+    @Test
+    public void usernamePredicatesUseIndex() {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+
+        // when
+        memberJpaRepository.findByUsername("member1");
+        memberJpaRepository.search(condition);
+        List<IndexAdvisor.Finding> findings = indexAdvisor.analyze();
+
+        // then
+        assertThat(findings).isEmpty();
+    }
+
+    @Test
+    public void reportTableScan() {
+        // when: 조건 없는 전체 조회는 table scan이 정상이므로 검출 여부 확인용
+        memberJpaRepository.findAll_Querydsl();
+        List<IndexAdvisor.Finding> findings = indexAdvisor.analyze();
+
+        // then
+        assertThat(findings).hasSize(1);
+        assertThat(findings.get(0).method()).isEqualTo("MemberJpaRepository.findAll_Querydsl");
+        assertThat(findings.get(0).tables()).containsExactly("MEMBER");
+    }
+}
@@ -0,0 +1,62 @@
+package com.newest.querydsl.metrics;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    public void recordLatencyRowsAndStatements() {
+        // given
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+        em.flush();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        // 같은 컨텍스트를 쓰는 다른 테스트의 기록이 남아 있을 수 있으므로 증가분으로 비교한다
+        long calls = calls();
+        double rows = total("querydsl.repository.rows");
+        double statements = total("querydsl.repository.statements");
+
+        // when
+        memberJpaRepository.search(condition);
+
+        // then
+        assertThat(calls()).isEqualTo(calls + 1);
+        assertThat(total("querydsl.repository.rows") - rows).isEqualTo(2);
+        assertThat(total("querydsl.repository.statements") - statements).isGreaterThanOrEqualTo(1);
+    }
+
+    private long calls() {
+        Timer timer = registry.find("querydsl.repository")
+                .tag("class", "MemberJpaRepository").tag("method", "search")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double total(String name) {
+        DistributionSummary summary = registry.find(name)
+                .tag("class", "MemberJpaRepository").tag("method", "search")
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}
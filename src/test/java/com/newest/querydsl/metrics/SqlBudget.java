@@ -0,0 +1,18 @@
+package com.newest.querydsl.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link SqlBudgetExtension}이 적용할 테스트 메서드(또는 클래스)별 SQL 예산
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    int maxStatements() default 30;
+
+    int maxRepeats() default 5;
+}
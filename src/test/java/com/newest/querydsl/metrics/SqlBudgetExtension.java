@@ -0,0 +1,46 @@
+package com.newest.querydsl.metrics;
+
+import com.newest.querydsl.config.MemberQueryProperties.SqlBudget.Mode;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * 테스트 메서드마다 SQL 수를 세고, 예산을 넘거나 같은 모양 SQL이 반복되면(N+1) 테스트를 실패시킨다.
+ * {@code @SpringBootTest} 테스트 클래스에 {@code @ExtendWith(SqlBudgetExtension.class)}로 붙인다.
+ */
+public class SqlBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SqlBudgetExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SqlStatementTracker tracker = SpringExtension.getApplicationContext(context).getBean(SqlStatementTracker.class);
+        SqlBudget budget = budget(context);
+        SqlScope scope = tracker.open(context.getDisplayName(), budget.maxStatements(), budget.maxRepeats());
+        context.getStore(NAMESPACE).put(SqlScope.class, scope);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        SqlScope scope = context.getStore(NAMESPACE).remove(SqlScope.class, SqlScope.class);
+        if (scope != null) {
+            scope.close();
+            scope.verify(Mode.FAIL);
+        }
+    }
+
+    private static SqlBudget budget(ExtensionContext context) {
+        SqlBudget budget = AnnotatedElementUtils.findMergedAnnotation(context.getRequiredTestMethod(), SqlBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(context.getRequiredTestClass(), SqlBudget.class);
+        }
+        return budget != null ? budget : Defaults.class.getAnnotation(SqlBudget.class);
+    }
+
+    @SqlBudget
+    private static final class Defaults {
+    }
+}
@@ -0,0 +1,133 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.entity.Member;
+import static com.newest.querydsl.entity.QBulkJobCheckpoint.bulkJobCheckpoint;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * 청크마다 커밋되는 동작을 확인해야 하므로 테스트 트랜잭션 없이 실행하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest(properties = "querydsl.member.bulk-update.initial-chunk-size=10")
+class ChunkedBulkExecutorTest {
+
+    @Autowired
+    ChunkedBulkExecutor chunkedBulkExecutor;
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void before() {
+        memberBulkLoader.load(IntStream.range(0, 100).mapToObj(i -> new Member("chunk" + i, 10)));
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("chunk")).execute();
+            queryFactory.delete(bulkJobCheckpoint).execute();
+        });
+    }
+
+    @Test
+    public void execute() {
+        // when
+        ChunkedBulkExecutor.Result result = chunkedBulkExecutor.execute("age-plus", member, member.id,
+                member.username.startsWith("chunk"),
+                chunk -> queryFactory.update(member).set(member.age, member.age.add(1)).where(chunk));
+
+        // then
+        assertThat(result.processedRows()).isEqualTo(100);
+        assertThat(result.chunks()).isGreaterThan(1);
+        assertThat(ages()).containsOnly(11);
+    }
+
+    @Test
+    public void resumeAfterFailure() {
+        // given
+        // 세 번째 청크에서 실패시켜 앞의 두 청크만 커밋된 상태를 만든다
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> chunkedBulkExecutor.execute("age-plus-resume", member, member.id,
+                member.username.startsWith("chunk"),
+                chunk -> {
+                    if (calls.incrementAndGet() == 3) {
+                        throw new IllegalStateException("chunk failure");
+                    }
+                    return queryFactory.update(member).set(member.age, member.age.add(1)).where(chunk);
+                }))
+                .isInstanceOf(IllegalStateException.class);
+
+        // when
+        ChunkedBulkExecutor.Result result = chunkedBulkExecutor.execute("age-plus-resume", member, member.id,
+                member.username.startsWith("chunk"),
+                chunk -> queryFactory.update(member).set(member.age, member.age.add(1)).where(chunk));
+
+        // then
+        // 이미 커밋된 청크는 다시 실행하지 않으므로 모든 회원이 정확히 한 번만 갱신된다
+        assertThat(result.resumed()).isTrue();
+        assertThat(result.processedRows()).isEqualTo(100);
+        assertThat(ages()).containsOnly(11);
+    }
+
+    @Test
+    public void execute_noMatchingRows() {
+        // when
+        ChunkedBulkExecutor.Result result = chunkedBulkExecutor.execute("age-plus-empty", member, member.id,
+                member.username.eq("chunk-none"),
+                chunk -> queryFactory.update(member).set(member.age, member.age.add(1)).where(chunk));
+
+        // then
+        assertThat(result.processedRows()).isZero();
+        assertThat(result.chunks()).isZero();
+        assertThat(ages()).containsOnly(10);
+    }
+
+    @Test
+    public void execute_rejectsSameJobWhileRunning() {
+        // given
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+
+        // when: 첫 청크를 실행하는 도중에 같은 jobId로 다시 호출한다
+        ChunkedBulkExecutor.Result result = chunkedBulkExecutor.execute("age-plus-once", member, member.id,
+                member.username.startsWith("chunk"),
+                chunk -> {
+                    if (rejected.get() == null) {
+                        rejected.set(catchThrowable(() -> chunkedBulkExecutor.execute("age-plus-once", member, member.id,
+                                member.username.startsWith("chunk"),
+                                other -> queryFactory.update(member).set(member.age, member.age.add(1)).where(other))));
+                    }
+                    return queryFactory.update(member).set(member.age, member.age.add(1)).where(chunk);
+                });
+
+        // then
+        assertThat(rejected.get()).isInstanceOf(IllegalStateException.class).hasMessageContaining("already running");
+        assertThat(result.processedRows()).isEqualTo(100);
+        assertThat(ages()).containsOnly(11);
+    }
+
+    private List<Integer> ages() {
+        return queryFactory.select(member.age)
+                .from(member)
+                .where(member.username.startsWith("chunk"))
+                .fetch();
+    }
+}
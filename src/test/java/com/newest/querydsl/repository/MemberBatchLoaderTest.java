@@ -0,0 +1,103 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.entity.Member;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * 배치 조회는 다른 스레드의 커넥션에서 실행되므로 커밋된 데이터로 테스트하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.member.batch-loader.enabled=true",
+        "querydsl.member.batch-loader.max-wait=200ms"
+})
+class MemberBatchLoaderTest {
+
+    static final int CALLERS = 20;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry registry;
+
+    List<Long> ids;
+
+    @BeforeEach
+    public void before() {
+        memberBulkLoader.load(IntStream.range(0, CALLERS).mapToObj(i -> new Member("loader" + i, i)));
+        ids = queryFactory.select(member.id).from(member).where(member.username.startsWith("loader")).fetch();
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                queryFactory.delete(member).where(member.username.startsWith("loader")).execute());
+    }
+
+    @Test
+    public void findById_concurrentCallsAreCoalesced() throws Exception {
+        // given
+        DistributionSummary batchSize = registry.get("querydsl.member.loader.batch.size").summary();
+        long batchesBefore = batchSize.count();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<Optional<Member>>> results = new ArrayList<>();
+        for (Long id : ids) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return memberJpaRepository.findById(id);
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(results.get(i).get().map(Member::getId)).contains(ids.get(i));
+        }
+        callers.shutdown();
+        assertThat(batchSize.count() - batchesBefore).isLessThan(CALLERS);
+        assertThat(memberJpaRepository.findById(-1L)).isEmpty();
+    }
+
+    @Test
+    public void findById_insideTransactionUsesPersistenceContext() {
+        // when
+        Boolean sameInstance = new TransactionTemplate(transactionManager).execute(status -> {
+            Member managed = em.find(Member.class, ids.get(0));
+            return memberJpaRepository.findById(ids.get(0)).get() == managed;
+        });
+
+        // then: 배치로 보냈다면 다른 영속성 컨텍스트의 인스턴스를 받는다
+        assertThat(sameInstance).isTrue();
+    }
+}
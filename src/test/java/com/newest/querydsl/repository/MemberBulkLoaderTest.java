@@ -0,0 +1,86 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * chunk마다 커밋하므로 테스트 트랜잭션 없이 실행하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest
+class MemberBulkLoaderTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("bulk")).execute();
+            queryFactory.delete(team).where(team.name.eq("bulkTeam")).execute();
+        });
+    }
+
+    @Test
+    public void load() {
+        // given
+        Team bulkTeam = new Team("bulkTeam");
+        tx.executeWithoutResult(status -> em.persist(bulkTeam));
+        List<Member> members = IntStream.range(0, 2_500)
+                .mapToObj(i -> new Member("bulk" + i, i % 100, bulkTeam))
+                .toList();
+
+        // when
+        MemberBulkLoader.Result result = memberBulkLoader.load(members.stream());
+
+        // then
+        Long saved = queryFactory.select(member.count())
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.eq("bulkTeam"))
+                .fetchOne();
+        assertThat(result.rows()).isEqualTo(2_500);
+        assertThat(saved).isEqualTo(2_500);
+    }
+
+    @Test
+    public void load_rejectsCallerTransaction() {
+        // when, then: 호출한 쪽의 영속성 컨텍스트를 비우지 않도록 트랜잭션 안에서는 거절한다
+        Member kept = new Member("bulk-kept", 10);
+        tx.executeWithoutResult(status -> {
+            em.persist(kept);
+            assertThatThrownBy(() -> memberBulkLoader.load(IntStream.range(0, 3).mapToObj(i -> new Member("bulk" + i, i))))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(em.contains(kept)).isTrue();
+            status.setRollbackOnly();
+        });
+    }
+}
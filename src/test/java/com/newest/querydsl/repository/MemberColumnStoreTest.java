@@ -0,0 +1,135 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * read model과 JPA 경로(searchByBuilder)의 결과를 무작위 변경 뒤마다 비교하는 differential 테스트.
+ * 커밋 이벤트로 동기화되므로 테스트 트랜잭션 없이 실행하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.member.read-model.enabled=true",
+        "querydsl.member.search-cache.enabled=false"
+})
+class MemberColumnStoreTest {
+
+    static final String[] TEAM_NAMES = {"colA", "colB", "colC"};
+
+    @Autowired
+    MemberColumnStore columnStore;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry registry;
+
+    TransactionTemplate tx;
+    Random random = new Random(42);
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (String name : TEAM_NAMES) {
+                Team team = new Team(name);
+                em.persist(team);
+                teamIds.add(team.getId());
+            }
+            for (int i = 0; i < 50; i++) {
+                em.persist(new Member("col" + i, random.nextInt(60), randomTeam()));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("col")).execute();
+            queryFactory.delete(team).where(team.name.startsWith("col")).execute();
+        });
+        columnStore.invalidate();
+    }
+
+    @Test
+    public void sameResultsAsJpa() {
+        assertSameResults();
+
+        for (int step = 0; step < 30; step++) {
+            int op = random.nextInt(5);
+            tx.executeWithoutResult(status -> {
+                List<Member> members = queryFactory.selectFrom(member).where(member.username.startsWith("col")).fetch();
+                Member target = members.get(random.nextInt(members.size()));
+                switch (op) {
+                    case 0 -> em.persist(new Member("col" + (100 + random.nextInt(1000)), random.nextInt(60), randomTeam()));
+                    case 1 -> em.remove(target);
+                    case 2 -> target.setAge(random.nextInt(60));
+                    case 3 -> target.setTeam(randomTeam());
+                    default -> em.find(Team.class, teamIds.get(random.nextInt(teamIds.size())))
+                            .setName(TEAM_NAMES[random.nextInt(TEAM_NAMES.length)]);
+                }
+            });
+            // 변경은 커밋 이벤트로 반영되어야 하고, 다시 적재해서 맞춰지면 안 된다
+            assertThat(assertSameResults()).as("step %d: read model 조회 중 SQL 수", step).isZero();
+        }
+
+        // 벌크 변경 뒤에는 다시 적재한다
+        memberJpaRepository.bulkUpdate(member.username.startsWith("col"), update -> update.set(member.age, member.age.add(1)));
+        assertThat(assertSameResults()).isPositive();
+    }
+
+    private Team randomTeam() {
+        // 팀이 없는 member도 섞는다
+        return random.nextInt(5) == 0 ? null : em.find(Team.class, teamIds.get(random.nextInt(teamIds.size())));
+    }
+
+    /**
+     * 64가지 조건 모양을 비교하고, read model 조회 중에 실행된 SQL 수를 돌려준다.
+     */
+    private double assertSameResults() {
+        Counter statements = registry.get("querydsl.jdbc.statements").counter();
+        double columnStoreStatements = 0;
+        for (int shape = 0; shape < 64; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & 1) != 0 ? "col" + random.nextInt(50) : null);
+            condition.setTeamName((shape & 2) != 0 ? TEAM_NAMES[random.nextInt(TEAM_NAMES.length)] : null);
+            condition.setAgeGoe((shape & 4) != 0 ? random.nextInt(40) : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 20 + random.nextInt(40) : null);
+            condition.setUsernameStartsWith((shape & 16) != 0 ? "col" + random.nextInt(10) : null);
+            condition.setUsernameContains((shape & 32) != 0 ? String.valueOf(random.nextInt(10)) : null);
+
+            double before = statements.count();
+            List<MemberTeamDto> result = columnStore.search(condition);
+            columnStoreStatements += statements.count() - before;
+            assertThat(result)
+                    .as("condition %s", condition)
+                    .containsExactlyInAnyOrderElementsOf(tx.execute(status -> memberJpaRepository.searchByBuilder(condition)));
+        }
+        return columnStoreStatements;
+    }
+}
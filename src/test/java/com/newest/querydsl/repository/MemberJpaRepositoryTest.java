@@ -4,6 +4,7 @@ import com.newest.querydsl.dto.MemberSearchCondition;
 import com.newest.querydsl.dto.MemberTeamDto;
 import com.newest.querydsl.entity.Member;
 import com.newest.querydsl.entity.Team;
+import static com.newest.querydsl.entity.QMember.member;
 import jakarta.persistence.EntityManager;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -13,6 +14,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @SpringBootTest
 @Transactional
@@ -103,5 +105,86 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
+    @Test
+    public void searchAllShapes() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        // when, then
+        // 조건 유무 64가지 조합 모두 미리 만든 템플릿과 BooleanBuilder 방식의 결과가 같아야 한다
+        for (int shape = 0; shape < 64; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & 1) != 0 ? "member3" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamB" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 25 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 35 : null);
+            condition.setUsernameStartsWith((shape & 16) != 0 ? "mem" : null);
+            condition.setUsernameContains((shape & 32) != 0 ? "er3" : null);
+
+            assertThat(memberJpaRepository.search(condition))
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchByBuilder(condition));
+        }
+    }
+
+    @Test
+    public void streamSearch() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition memberSearchCondition = new MemberSearchCondition();
+        memberSearchCondition.setAgeGoe(15);
+        memberSearchCondition.setUsernameContains("er3");
+        MemberSearchCondition startsWith = new MemberSearchCondition();
+        startsWith.setUsernameStartsWith("member4");
+
+        // when
+        List<MemberTeamDto> result;
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.streamSearch(memberSearchCondition)) {
+            result = stream.toList();
+        }
+        List<MemberTeamDto> startsWithResult;
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.streamSearch(startsWith)) {
+            startsWithResult = stream.toList();
+        }
+
+        // then: usernameContains/StartsWith가 빠지면 ageGoe만 걸려 3건이 나온다
+        assertThat(result).extracting("username").containsExactly("member3");
+        assertThat(result).containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(memberSearchCondition));
+        assertThat(startsWithResult).extracting("username").containsExactly("member4");
+    }
+
+    @Test
+    public void bulkUpdate() {
+        // given
+        Member member1 = new Member("bulk1", 10);
+        Member member2 = new Member("bulk2", 30);
+        memberJpaRepository.save(member1);
+        memberJpaRepository.save(member2);
+
+        // when
+        long count = memberJpaRepository.bulkUpdate(
+                member.username.startsWith("bulk").and(member.age.lt(28)),
+                update -> update.set(member.username, "비회원"));
+
+        // then
+        // 벌크 연산 후 영속성 컨텍스트가 비워졌으므로 다시 조회하면 DB 값을 가져온다
+        assertThat(count).isEqualTo(1);
+        assertThat(memberJpaRepository.findById(member1.getId()).get().getUsername()).isEqualTo("비회원");
+        assertThat(memberJpaRepository.findById(member2.getId()).get().getUsername()).isEqualTo("bulk2");
+    }
 
-}
\ No newline at end of file
+}
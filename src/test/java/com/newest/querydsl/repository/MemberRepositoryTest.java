@@ -1,9 +1,13 @@
 package com.newest.querydsl.repository;
 
+import com.newest.querydsl.dto.CursorPage;
+import com.newest.querydsl.dto.MemberCursor;
 import com.newest.querydsl.dto.MemberSearchCondition;
 import com.newest.querydsl.dto.MemberTeamDto;
 import com.newest.querydsl.entity.Member;
 import com.newest.querydsl.entity.Team;
+import com.newest.querydsl.metrics.SqlScope;
+import com.newest.querydsl.metrics.SqlStatementTracker;
 import jakarta.persistence.EntityManager;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import org.assertj.core.api.AssertionsForInterfaceTypes;
@@ -11,11 +15,15 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @SpringBootTest
 @Transactional
@@ -25,6 +33,9 @@ class MemberRepositoryTest {
 
     @Autowired
     EntityManager em;
+
+    @Autowired
+    SqlStatementTracker sqlStatementTracker;
     
     @Test
     public void basicTest() {
@@ -85,4 +96,121 @@ class MemberRepositoryTest {
         // then
     }
 
+
+    @Test
+    public void searchPageComplex_count() {
+        // given
+        Team team = new Team("countTeam");
+        em.persist(team);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("count" + i, 20 + i, team));
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("countTeam");
+        condition.setAgeGoe(21);
+
+        // when
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(1, 2));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        AssertionsForInterfaceTypes.assertThat(page.getContent()).hasSize(2);
+    }
+
+    @Test
+    public void searchByCursor() {
+        // given
+        Team team = new Team("keysetTeam");
+        em.persist(team);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("keyset" + i, i % 3, team));
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("keysetTeam");
+        PageRequest pageRequest = PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "age"));
+
+        // when
+        List<MemberTeamDto> offsetResult = memberRepository.searchPageComplex(condition,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "age").and(Sort.by(Sort.Direction.DESC, "id"))))
+                .getContent();
+
+        List<MemberTeamDto> keysetResult = new ArrayList<>();
+        MemberCursor after = null;
+        int pages = 0;
+        do {
+            CursorPage<MemberTeamDto> page = memberRepository.searchByCursor(condition, after, pageRequest);
+            keysetResult.addAll(page.getContent());
+            after = page.getNextCursor() != null ? MemberCursor.decode(page.getNextCursor()) : null;
+            pages++;
+        } while (after != null);
+
+        // then
+        assertThat(pages).isEqualTo(3);
+        AssertionsForInterfaceTypes.assertThat(keysetResult).containsExactlyElementsOf(offsetResult);
+    }
+
+    @Test
+    public void searchAll() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, 10 + i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MemberSearchCondition byUsername = new MemberSearchCondition();
+            byUsername.setUsername("member" + i);
+            conditions.add(byUsername);
+
+            MemberSearchCondition byUsernameAndTeam = new MemberSearchCondition();
+            byUsernameAndTeam.setUsername("member" + i);
+            byUsernameAndTeam.setTeamName("teamA");
+            byUsernameAndTeam.setAgeGoe(12);
+            conditions.add(byUsernameAndTeam);
+        }
+        MemberSearchCondition byTeam = new MemberSearchCondition();
+        byTeam.setTeamName("teamB");
+        conditions.add(byTeam);
+        MemberSearchCondition missing = new MemberSearchCondition();
+        missing.setUsername("nobody");
+        conditions.add(missing);
+
+        // when
+        SqlScope scope = sqlStatementTracker.open("searchAll", 10, 10);
+        Map<MemberSearchCondition, List<MemberTeamDto>> result;
+        try (scope) {
+            result = memberRepository.searchAll(conditions);
+        }
+
+        // then: 조건 그룹(username / username+teamName+ageGoe / teamName)마다 SQL 하나
+        assertThat(scope.getStatements()).isEqualTo(3);
+        AssertionsForInterfaceTypes.assertThat(result.keySet()).containsExactlyElementsOf(conditions);
+        for (MemberSearchCondition condition : conditions) {
+            AssertionsForInterfaceTypes.assertThat(result.get(condition))
+                    .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+        }
+        AssertionsForInterfaceTypes.assertThat(result.get(missing)).isEmpty();
+    }
+
+    @Test
+    public void searchByCursor_sortMismatch() {
+        MemberCursor cursor = new MemberCursor("id", Sort.Direction.ASC, 0, 1L);
+
+        assertThrows(IllegalArgumentException.class, () -> memberRepository.searchByCursor(
+                new MemberSearchCondition(), cursor, PageRequest.of(0, 3, Sort.by("age"))));
+    }
+
+    @Test
+    public void searchByCursor_multipleSortOrders() {
+        assertThrows(IllegalArgumentException.class, () -> memberRepository.searchByCursor(
+                new MemberSearchCondition(), null, PageRequest.of(0, 3, Sort.by("age", "id"))));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.cache.SingleFlight;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.entity.Member;
+import static com.newest.querydsl.entity.QMember.member;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * 첫 SQL을 DB 앞에서 잠시 붙잡아 두고, 그동안 같은 검색을 한 호출들이 모두 그 조회에 합류하는지 확인한다.
+ * 조회는 여러 스레드의 커넥션에서 실행되므로 커밋된 데이터로 테스트하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest
+class MemberSearchSingleFlightTest {
+
+    static final int AGE = 777;
+    static final int CALLERS = 16;
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+    @Autowired
+    MemberSearchCache searchCache;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    StatementGate gate;
+
+    @BeforeEach
+    public void before() {
+        memberBulkLoader.load(IntStream.range(0, 3).mapToObj(i -> new Member("flight" + i, AGE)));
+    }
+
+    @AfterEach
+    public void after() {
+        gate.release.countDown();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                queryFactory.delete(member).where(member.username.startsWith("flight")).execute());
+    }
+
+    @Test
+    public void searchPageComplex_identicalConcurrentCallsShareOneStatement() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(AGE);
+        condition.setAgeLoe(AGE);
+        MemberSearchCondition unrelated = new MemberSearchCondition();
+        unrelated.setUsername("flight0");
+        Counter statements = registry.get("querydsl.jdbc.statements").counter();
+        SingleFlight<?, ?> singleFlight = searchCache.getSingleFlight();
+        double statementsBefore = statements.count();
+        long followersBefore = singleFlight.followerCount();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+        // when: 첫 호출이 DB 앞에서 멈춰 있는 동안 나머지가 도착한다
+        gate.armed.set(true);
+        List<Future<Page<MemberTeamDto>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10))));
+        }
+        assertThat(gate.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.followerCount() - followersBefore < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // 다른 키는 같은 stripe 잠금을 오래 잡지 않으므로 진행 중인 조회를 기다리지 않는다
+        List<MemberTeamDto> other = memberRepository.searchPageComplex(unrelated, PageRequest.of(0, 10)).getContent();
+        gate.release.countDown();
+
+        // then
+        Page<MemberTeamDto> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Page<MemberTeamDto>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).getContent()).isEqualTo(first.getContent());
+        }
+        callers.shutdown();
+        assertThat(first.getContent()).hasSize(3);
+        assertThat(other).hasSize(1);
+        assertThat(singleFlight.followerCount() - followersBefore).isEqualTo(CALLERS - 1);
+        // 같은 검색 16번에 SQL 1개, 다른 검색에 SQL 1개
+        assertThat(statements.count() - statementsBefore).isEqualTo(2);
+    }
+
+    /**
+     * armed 상태에서 처음 실행되는 SQL 하나를 release 될 때까지 붙잡는다.
+     */
+    static class StatementGate extends SimpleJdbcEventListener {
+        final AtomicBoolean armed = new AtomicBoolean();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void onBeforeAnyExecute(StatementInformation statementInformation) {
+            if (!armed.compareAndSet(true, false)) {
+                return;
+            }
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class GateConfig {
+        @Bean
+        StatementGate statementGate() {
+            return new StatementGate();
+        }
+    }
+}
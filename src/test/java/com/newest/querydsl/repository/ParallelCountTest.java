@@ -0,0 +1,123 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.entity.Member;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * count 쿼리는 다른 커넥션에서 실행되므로 커밋된 데이터로 테스트하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest
+@TestPropertySource(properties = "querydsl.member.page.parallel-count=true")
+class ParallelCountTest {
+
+    static final int AGE = 999;
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    @BeforeEach
+    public void before() {
+        memberBulkLoader.load(IntStream.range(0, 30).mapToObj(i -> new Member("parallel" + i, AGE)));
+        condition.setAgeGoe(AGE);
+        condition.setAgeLoe(AGE);
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                queryFactory.delete(member).where(member.username.startsWith("parallel")).execute());
+    }
+
+    @Test
+    public void searchPageComplex_parallelCount() {
+        // when
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+
+        // then
+        assertThat(result.getContent()).hasSize(10);
+        assertThat(result.getTotalElements()).isEqualTo(30);
+        assertThat(result.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    public void searchPageComplex_writeTransactionCountsSequentially() {
+        // given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // when
+        Page<MemberTeamDto> result = tx.execute(status -> {
+            em.persist(new Member("parallel-uncommitted", AGE));
+            em.flush();
+            Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+            status.setRollbackOnly();
+            return page;
+        });
+
+        // then: 다른 커넥션이었다면 커밋되지 않은 row는 세지 못한다
+        assertThat(result.getTotalElements()).isEqualTo(31);
+    }
+
+    @Test
+    public void await_queuedCountRunsInline() throws Exception {
+        // given: 스레드 하나짜리 executor를 다른 작업으로 막아 두고 count를 대기열에 넣는다
+        MemberQueryProperties properties = new MemberQueryProperties();
+        properties.getPage().setCountPoolSize(1);
+        properties.getPage().setCountQueueCapacity(10);
+        ParallelCountExecutor executor = new ParallelCountExecutor(properties, transactionManager);
+        CountDownLatch release = new CountDownLatch(1);
+        ParallelCountExecutor.PendingCount blocker = executor.submit(() -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        });
+        AtomicInteger queuedRuns = new AtomicInteger();
+        ParallelCountExecutor.PendingCount queued = executor.submit(() -> {
+            queuedRuns.incrementAndGet();
+            return 42;
+        });
+
+        // when: 이미 지난 마감 시각으로 기다려도 시작 전인 count는 타임아웃 없이 바로 실행된다
+        long total = executor.await(queued, System.nanoTime() - 1);
+        release.countDown();
+        executor.await(blocker, System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+        executor.shutdown();
+
+        // then: 대기열의 작업은 취소되어 count가 한 번만 실행된다
+        assertThat(total).isEqualTo(42);
+        assertThat(queuedRuns.get()).isEqualTo(1);
+    }
+}
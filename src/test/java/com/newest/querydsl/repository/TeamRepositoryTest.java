@@ -0,0 +1,73 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.TeamMemberDto;
+import com.newest.querydsl.dto.TeamRosterDto;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import com.newest.querydsl.metrics.SqlScope;
+import com.newest.querydsl.metrics.SqlStatementTracker;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    SqlStatementTracker sqlStatementTracker;
+
+    @BeforeEach
+    public void before() {
+        for (int t = 0; t < 3; t++) {
+            Team team = new Team("team" + t);
+            em.persist(team);
+            for (int m = 0; m < 4; m++) {
+                em.persist(new Member("member" + t + m, 10 * m, team));
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void findRosters() {
+        // when
+        Page<TeamRosterDto> result = teamRepository.findRosters(PageRequest.of(0, 2));
+
+        // then
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("name").containsExactly("team0", "team1");
+        assertThat(result.getContent().get(0).getMembers())
+                .extracting(TeamMemberDto::getUsername)
+                .containsExactly("member00", "member01", "member02", "member03");
+    }
+
+    @Test
+    public void findRosters_statementCountIndependentOfPageSize() {
+        // when
+        SqlScope small = sqlStatementTracker.open("size1", 10, 1);
+        try (small) {
+            teamRepository.findRosters(PageRequest.of(0, 1));
+        }
+        SqlScope large = sqlStatementTracker.open("size2", 10, 1);
+        try (large) {
+            teamRepository.findRosters(PageRequest.of(0, 2));
+        }
+
+        // then: team 페이지, member IN 조회, count
+        assertThat(small.getStatements()).isEqualTo(3);
+        assertThat(large.getStatements()).isEqualTo(3);
+        assertThat(large.repeatedShapes()).isEmpty();
+    }
+}
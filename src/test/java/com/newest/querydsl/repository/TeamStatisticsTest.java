@@ -0,0 +1,137 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.TeamAgeStatisticsDto;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 커밋 이후 이벤트로 갱신되므로 테스트 트랜잭션 없이 실행하고, 매 단계마다 group by 전체 집계와 비교한다.
+ */
+@SpringBootTest
+class TeamStatisticsTest {
+
+    @Autowired
+    TeamStatistics teamStatistics;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry registry;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("statsA");
+            Team teamB = new Team("statsB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("stats1", 10, teamA));
+            em.persist(new Member("stats2", 20, teamA));
+            em.persist(new Member("stats3", 30, teamB));
+            em.persist(new Member("stats4", 40, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("stats")).execute();
+            queryFactory.delete(team).where(team.name.startsWith("stats")).execute();
+        });
+        teamStatistics.invalidate();
+    }
+
+    @Test
+    public void incrementalUpdates() {
+        assertThat(teamStatistics.findAll()).isEqualTo(groupBy());
+
+        // age 변경
+        tx.executeWithoutResult(status -> findByUsername("stats1").setAge(15));
+        assertThat(findAllWithoutRebuild()).isEqualTo(groupBy());
+
+        // 팀 이동
+        tx.executeWithoutResult(status -> findByUsername("stats2").changeTeam(em.find(Team.class, teamBId)));
+        assertThat(findAllWithoutRebuild()).isEqualTo(groupBy());
+
+        // 삭제 후 최솟값이 다음 나이로 바뀌어야 한다
+        tx.executeWithoutResult(status -> em.remove(findByUsername("stats2")));
+        assertThat(findAllWithoutRebuild()).isEqualTo(groupBy());
+
+        // 추가
+        tx.executeWithoutResult(status -> em.persist(new Member("stats5", 50, em.find(Team.class, teamAId))));
+        assertThat(findAllWithoutRebuild()).isEqualTo(groupBy());
+    }
+
+    @Test
+    public void rebuildAfterBulkUpdate() {
+        // given
+        teamStatistics.findAll();
+
+        // when
+        memberJpaRepository.bulkUpdate(member.username.startsWith("stats"),
+                update -> update.set(member.age, member.age.add(1)));
+
+        // then
+        assertThat(teamStatistics.findAll()).isEqualTo(groupBy());
+    }
+
+    /**
+     * 변경이 증분으로 반영되었다면 다시 집계하지 않으므로 SQL이 실행되지 않는다.
+     */
+    private List<TeamAgeStatisticsDto> findAllWithoutRebuild() {
+        Counter statements = registry.get("querydsl.jdbc.statements").counter();
+        double before = statements.count();
+        List<TeamAgeStatisticsDto> result = teamStatistics.findAll();
+        assertThat(statements.count() - before).as("group by 재구성 없이 답해야 한다").isZero();
+        return result;
+    }
+
+    private Member findByUsername(String username) {
+        return queryFactory.selectFrom(member).where(member.username.eq(username)).fetchOne();
+    }
+
+    private List<TeamAgeStatisticsDto> groupBy() {
+        List<Tuple> rows = queryFactory
+                .select(team.id, team.name, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.id, team.name)
+                .orderBy(team.id.asc())
+                .fetch();
+        return rows.stream()
+                .map(row -> new TeamAgeStatisticsDto(row.get(team.id), row.get(team.name),
+                        // sum(int)은 DB에 따라 Long으로 돌아오므로 Number로 받는다
+                        row.get(member.count()), row.get(3, Number.class).longValue(),
+                        row.get(member.age.min()), row.get(member.age.max())))
+                .toList();
+    }
+}
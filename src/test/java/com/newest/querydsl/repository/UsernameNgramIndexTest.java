@@ -0,0 +1,118 @@
+package com.newest.querydsl.repository;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.dto.MemberTeamDto;
+import com.newest.querydsl.entity.Member;
+import static com.newest.querydsl.entity.QMember.member;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 인덱스는 커밋 이벤트로 갱신되므로 테스트 트랜잭션 없이 실행하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.member.username-index.enabled=true",
+        "querydsl.member.search-cache.enabled=false"
+})
+class UsernameNgramIndexTest {
+
+    @Autowired
+    UsernameNgramIndex usernameIndex;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("ngram_alice", 10));
+            em.persist(new Member("ngram_alicia", 20));
+            em.persist(new Member("ngram_bob", 30));
+            em.persist(new Member("ngram_100%", 40));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status ->
+                queryFactory.delete(member).where(member.username.startsWith("ngram")).execute());
+        usernameIndex.invalidate();
+    }
+
+    @Test
+    public void matchesLike() {
+        assertSameAsLike(null, "alic");
+        assertSameAsLike("ngram_a", null);
+        assertSameAsLike("ngram_", "bob");
+        assertSameAsLike(null, "100%");
+        assertSameAsLike(null, "nothing");
+    }
+
+    @Test
+    public void blankConditionIgnored() {
+        // when
+        assertThat(usernameIndex.match("   ", null)).isNull();
+
+        // then
+        assertSameAsLike("   ", "alic");
+        assertSameAsLike("ngram_a", "   ");
+    }
+
+    @Test
+    public void shortFragmentFallsBackToLike() {
+        // when
+        assertThat(usernameIndex.match(null, "al")).isNull();
+
+        // then
+        assertSameAsLike(null, "al");
+    }
+
+    @Test
+    public void updatedOnCommit() {
+        // given
+        assertThat(usernameIndex.match(null, "alice")).hasSize(1);
+
+        // when
+        tx.executeWithoutResult(status -> queryFactory.selectFrom(member)
+                .where(member.username.eq("ngram_bob")).fetchOne().setUsername("ngram_alice2"));
+        tx.executeWithoutResult(status -> em.persist(new Member("ngram_malice", 50)));
+
+        // then
+        assertThat(usernameIndex.match(null, "alice")).hasSize(3);
+        assertThat(usernameIndex.match(null, "bob")).isEmpty();
+    }
+
+    @Test
+    public void skippedInsideWriteTransaction() {
+        tx.executeWithoutResult(status -> assertThat(usernameIndex.match(null, "alice")).isNull());
+    }
+
+    private void assertSameAsLike(String startsWith, String contains) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameStartsWith(startsWith);
+        condition.setUsernameContains(contains);
+
+        List<MemberTeamDto> indexed = memberJpaRepository.search(condition);
+        List<MemberTeamDto> like = tx.execute(status -> memberJpaRepository.searchByBuilder(condition));
+
+        assertThat(indexed).containsExactlyInAnyOrderElementsOf(like);
+    }
+}
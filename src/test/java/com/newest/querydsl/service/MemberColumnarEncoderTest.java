@@ -0,0 +1,75 @@
+package com.newest.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newest.querydsl.dto.MemberTeamDto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.util.ArrayList;
+import java.util.List;
+
+class MemberColumnarEncoderTest {
+
+    @Test
+    public void roundTripAcrossBlocks() throws Exception {
+        // given: block 경계를 여러 번 넘고, 팀 없는 회원과 나중 block에 처음 나오는 팀을 포함한다
+        List<MemberTeamDto> rows = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            boolean noTeam = i % 7 == 0;
+            long teamId = i < 900 ? i % 2 + 1 : 3;
+            rows.add(new MemberTeamDto(i * 3, "회원" + i, (int) (i % 100) - 1,
+                    noTeam ? null : teamId, noTeam ? null : "team" + teamId));
+        }
+        rows.add(new MemberTeamDto(1L, null, 0, null, null));
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemberColumnarEncoder encoder = new MemberColumnarEncoder(out, 64)) {
+            for (MemberTeamDto row : rows) {
+                encoder.write(row);
+            }
+            encoder.finish();
+        }
+        List<MemberTeamDto> decoded = MemberColumnarEncoder.decode(new ByteArrayInputStream(out.toByteArray()));
+
+        // then
+        assertThat(decoded).containsExactlyElementsOf(rows);
+        assertThat(out.size()).isLessThan(new ObjectMapper().writeValueAsBytes(rows).length / 3);
+    }
+
+    @Test
+    public void emptyResult() throws Exception {
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemberColumnarEncoder encoder = new MemberColumnarEncoder(out, 64)) {
+            encoder.finish();
+        }
+
+        // then
+        assertThat(MemberColumnarEncoder.decode(new ByteArrayInputStream(out.toByteArray()))).isEmpty();
+    }
+
+    @Test
+    public void closedBeforeFinishIsNotComplete() throws Exception {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when: 두 block을 보낸 뒤 조회가 실패한 것처럼 finish 없이 닫는다
+        assertThatThrownBy(() -> {
+            try (MemberColumnarEncoder encoder = new MemberColumnarEncoder(out, 64)) {
+                for (long i = 1; i <= 150; i++) {
+                    encoder.write(new MemberTeamDto(i, "member" + i, 10, null, null));
+                }
+                throw new IllegalStateException("cursor failure");
+            }
+        }).isInstanceOf(IllegalStateException.class);
+
+        // then: 끝 표시가 없으므로 완전한 결과로 읽히지 않는다
+        assertThatThrownBy(() -> MemberColumnarEncoder.decode(new ByteArrayInputStream(out.toByteArray())))
+                .isInstanceOf(EOFException.class);
+    }
+}
@@ -0,0 +1,226 @@
+package com.newest.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newest.querydsl.config.MemberQueryProperties;
+import com.newest.querydsl.dto.ExportJobDto;
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import static com.newest.querydsl.entity.QMember.member;
+import static com.newest.querydsl.entity.QTeam.team;
+import com.newest.querydsl.repository.MemberBulkLoader;
+import com.newest.querydsl.repository.MemberRepository;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 내보내기는 별도 스레드의 커넥션에서 실행되므로 커밋된 데이터로 테스트하고, 끝나면 직접 정리한다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.member.export.range-size=300",
+        "querydsl.member.export.parallelism=3"
+})
+class MemberExportServiceTest {
+
+    @TempDir
+    static Path exportDir;
+
+    @DynamicPropertySource
+    static void exportDirectory(DynamicPropertyRegistry registry) {
+        registry.add("querydsl.member.export.directory", () -> exportDir.toString());
+    }
+
+    @Autowired
+    MemberExportService memberExportService;
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberQueryProperties properties;
+
+    TransactionTemplate tx;
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        Team exportTeam = new Team("exportTeam");
+        Team otherTeam = new Team("exportOther");
+        tx.executeWithoutResult(status -> {
+            em.persist(exportTeam);
+            em.persist(otherTeam);
+        });
+        memberBulkLoader.load(IntStream.range(0, 2_000)
+                .mapToObj(i -> new Member(i == 0 ? "export,\"0\"" : "export" + i, i % 50, i % 2 == 0 ? exportTeam : otherTeam)));
+        condition.setTeamName("exportTeam");
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("export")).execute();
+            queryFactory.delete(team).where(team.name.startsWith("export")).execute();
+        });
+    }
+
+    @Test
+    public void export() throws Exception {
+        // when
+        ExportJobDto started = memberExportService.start(condition);
+        ExportJobDto done = await(started.getJobId());
+
+        // then
+        List<String> lines = readCsv(started.getJobId());
+        assertThat(done.getState()).isEqualTo(ExportJobDto.State.COMPLETED);
+        assertThat(done.getCompletedRanges()).isEqualTo(done.getTotalRanges()).isGreaterThan(1);
+        assertThat(done.getRows()).isEqualTo(1_000);
+        assertThat(lines).hasSize(1_001);
+        assertThat(lines.get(0)).isEqualTo("member_id,username,age,team_id,team_name");
+        assertThat(lines.get(1)).contains(",\"export,\"\"0\"\"\",0,").endsWith(",exportTeam");
+        // 구간 순서대로 이어 붙이므로 id 순이다
+        List<Long> ids = lines.subList(1, lines.size()).stream()
+                .map(line -> Long.valueOf(line.substring(0, line.indexOf(','))))
+                .toList();
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    public void resumeInterruptedJob() throws Exception {
+        // given: 완료된 작업을 짝수 구간만 끝난 상태로 되돌린다.
+        // 끝난 구간의 part는 표시용 row 하나로 바꿔 두어, 다시 스캔했다면 결과에 남지 않게 한다
+        String jobId = memberExportService.start(condition).getJobId();
+        await(jobId);
+        Path dir = exportDir.resolve(jobId);
+        List<Long> exportedIds = ids(readCsv(jobId));
+        Path checkpointFile = dir.resolve("checkpoint.json");
+        ExportCheckpoint checkpoint = objectMapper.readValue(checkpointFile.toFile(), ExportCheckpoint.class);
+        checkpoint.setState(ExportJobDto.State.RUNNING);
+        checkpoint.getCompleted().clear();
+        for (int range = 0; range < checkpoint.getTotalRanges(); range += 2) {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(dir.resolve(String.format("part-%06d.csv.gz", range))))) {
+                out.write(("kept-" + range + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            checkpoint.getCompleted().put(range, 1L);
+        }
+        objectMapper.writeValue(checkpointFile.toFile(), checkpoint);
+        Files.delete(dir.resolve("members.csv.gz"));
+
+        // when
+        memberExportService.resumeInterrupted();
+        ExportJobDto resumed = await(jobId);
+
+        // then: 짝수 구간은 checkpoint대로 건너뛰고, 홀수 구간만 다시 스캔한다
+        List<String> lines = readCsv(jobId);
+        List<String> kept = lines.stream().filter(line -> line.startsWith("kept-")).toList();
+        List<Long> rescanned = ids(lines.stream().filter(line -> !line.startsWith("kept-")).toList());
+        List<Long> expected = exportedIds.stream()
+                .filter(id -> (id - checkpoint.getMinId()) / checkpoint.getRangeSize() % 2 == 1)
+                .toList();
+        assertThat(resumed.getState()).isEqualTo(ExportJobDto.State.COMPLETED);
+        assertThat(kept).hasSize(checkpoint.getCompleted().size());
+        assertThat(rescanned).isNotEmpty().containsExactlyElementsOf(expected);
+        assertThat(resumed.getRows()).isEqualTo(kept.size() + rescanned.size());
+    }
+
+    @Test
+    public void shutdownLeavesRunningJobResumable() throws Exception {
+        // given: 별도 인스턴스로 작업을 시작하고 바로 종료한다 (실행 중인 구간은 인터럽트된다)
+        MemberExportService stopping = new MemberExportService(memberRepository, queryFactory, objectMapper,
+                transactionManager, properties);
+        String jobId = stopping.start(condition).getJobId();
+        stopping.shutdown();
+        Thread.sleep(200);
+        Path checkpointFile = exportDir.resolve(jobId).resolve("checkpoint.json");
+
+        // when
+        ExportCheckpoint saved = objectMapper.readValue(checkpointFile.toFile(), ExportCheckpoint.class);
+        memberExportService.resumeInterrupted();
+        ExportJobDto resumed = await(jobId);
+
+        // then: 종료로 끊긴 작업은 FAILED가 아니므로 다음 기동 때 이어서 끝난다
+        assertThat(saved.getState()).isNotEqualTo(ExportJobDto.State.FAILED);
+        assertThat(resumed.getState()).isEqualTo(ExportJobDto.State.COMPLETED);
+        assertThat(readCsv(jobId)).hasSize(1_001);
+    }
+
+    @Test
+    public void statusAndResultAfterRestart() throws Exception {
+        // given: 완료된 작업 디렉터리를 이 서버가 모르는 작업 id로 복사한다 (재시작 후와 같은 상태)
+        String jobId = memberExportService.start(condition).getJobId();
+        await(jobId);
+        String restoredId = UUID.randomUUID().toString();
+        Path restored = Files.createDirectories(exportDir.resolve(restoredId));
+        ExportCheckpoint checkpoint = objectMapper.readValue(
+                exportDir.resolve(jobId).resolve("checkpoint.json").toFile(), ExportCheckpoint.class);
+        checkpoint.setJobId(restoredId);
+        objectMapper.writeValue(restored.resolve("checkpoint.json").toFile(), checkpoint);
+        Files.copy(exportDir.resolve(jobId).resolve("members.csv.gz"), restored.resolve("members.csv.gz"));
+
+        // when
+        ExportJobDto status = memberExportService.status(restoredId).orElseThrow();
+
+        // then
+        assertThat(status.getState()).isEqualTo(ExportJobDto.State.COMPLETED);
+        assertThat(status.getRows()).isEqualTo(1_000);
+        assertThat(readCsv(restoredId)).hasSize(1_001);
+        assertThat(memberExportService.status("../" + restoredId)).isEmpty();
+    }
+
+    private static List<Long> ids(List<String> lines) {
+        // 헤더를 제외한 row의 member_id
+        return lines.stream()
+                .filter(line -> !line.startsWith("member_id"))
+                .map(line -> Long.valueOf(line.substring(0, line.indexOf(','))))
+                .toList();
+    }
+
+    private ExportJobDto await(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        ExportJobDto status = memberExportService.status(jobId).orElseThrow();
+        while (status.getState() == ExportJobDto.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = memberExportService.status(jobId).orElseThrow();
+        }
+        return status;
+    }
+
+    private List<String> readCsv(String jobId) throws Exception {
+        Path file = memberExportService.result(jobId).orElseThrow();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
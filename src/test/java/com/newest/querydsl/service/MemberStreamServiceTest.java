@@ -0,0 +1,63 @@
+package com.newest.querydsl.service;
+
+import com.newest.querydsl.dto.MemberSearchCondition;
+import com.newest.querydsl.entity.Member;
+import com.newest.querydsl.entity.Team;
+import com.newest.querydsl.repository.MemberJpaRepository;
+import jakarta.persistence.EntityManager;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+@SpringBootTest
+@Transactional
+class MemberStreamServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberStreamService memberStreamService;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void writeColumnarAllShapes() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+
+        // when, then
+        // 조건 유무 64가지 조합 모두 같은 URL의 JSON 응답(search)과 같은 row를 내보내야 한다
+        for (int shape = 0; shape < 64; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & 1) != 0 ? "member3" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamB" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 25 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 35 : null);
+            condition.setUsernameStartsWith((shape & 16) != 0 ? "mem" : null);
+            condition.setUsernameContains((shape & 32) != 0 ? "er3" : null);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long rows = memberStreamService.writeColumnar(condition, out);
+
+            assertThat(MemberColumnarEncoder.decode(new ByteArrayInputStream(out.toByteArray())))
+                    .as("shape %d", shape)
+                    .hasSize((int) rows)
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition));
+        }
+    }
+}